@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# 认证接口压测：对比 user-service（MVC + JPA）与 user-service-reactive（WebFlux + R2DBC）
+# 依赖 wrk (https://github.com/wg/wrk) 和 docker
+#
+# 每个请求使用不同的 deviceId，并在 USERS 个压测账号之间轮转。所有请求共用同一账号和设备时，
+# 每次登录都 upsert 同一行 refresh_tokens，测到的是行锁竞争而不是吞吐
+#
+# 用法：
+#   ./scripts/bench-auth.sh <base-url> <container-name> [concurrency] [duration] [users]
+#   ./scripts/bench-auth.sh http://localhost:8081 app-factory-user-service 1000 60s 200
+
+set -e
+
+BASE_URL=${1:-http://localhost:8081}
+CONTAINER=${2:-app-factory-user-service}
+CONCURRENCY=${3:-1000}
+DURATION=${4:-60s}
+USERS=${5:-200}
+THREADS=${THREADS:-$(nproc)}
+PHONE_PREFIX=13900
+PASSWORD=bench-password
+
+# 准备压测账号（已存在时忽略错误）
+echo "▶ 注册 $USERS 个压测账号"
+for i in $(seq 0 $((USERS - 1))); do
+  PHONE=$(printf "%s%06d" "$PHONE_PREFIX" "$i")
+  curl -s -X POST "$BASE_URL/api/v1/auth/register" \
+    -H "Content-Type: application/json" \
+    -d "{\"phone\":\"$PHONE\",\"password\":\"$PASSWORD\"}" > /dev/null || true
+done
+
+SCRIPT_FILE=$(mktemp --suffix=.lua)
+cat > "$SCRIPT_FILE" <<'EOF'
+local users = tonumber(os.getenv("BENCH_USERS"))
+local prefix = os.getenv("BENCH_PHONE_PREFIX")
+local password = os.getenv("BENCH_PASSWORD")
+local next_id = 0
+local counter = 0
+
+function setup(thread)
+  thread:set("id", next_id)
+  next_id = next_id + 1
+end
+
+function request()
+  counter = counter + 1
+  local phone = string.format("%s%06d", prefix, (id + counter * 7919) % users)
+  local body = string.format('{"phone":"%s","password":"%s","deviceId":"bench-%d-%d"}',
+      phone, password, id, counter)
+  return wrk.format("POST", "/api/v1/auth/login", { ["Content-Type"] = "application/json" }, body)
+end
+EOF
+
+# 后台采样内存
+STATS_FILE=$(mktemp)
+( while true; do docker stats --no-stream --format "{{.MemUsage}}" "$CONTAINER" >> "$STATS_FILE"; sleep 1; done ) &
+STATS_PID=$!
+trap 'kill $STATS_PID 2>/dev/null; rm -f "$STATS_FILE" "$SCRIPT_FILE"' EXIT
+
+echo "▶ login: concurrency=$CONCURRENCY duration=$DURATION users=$USERS"
+BENCH_USERS=$USERS BENCH_PHONE_PREFIX=$PHONE_PREFIX BENCH_PASSWORD=$PASSWORD \
+  wrk -t "$THREADS" -c "$CONCURRENCY" -d "$DURATION" --latency -s "$SCRIPT_FILE" "$BASE_URL"
+
+echo "▶ 容器内存峰值"
+sort -h "$STATS_FILE" | tail -1
@@ -0,0 +1,25 @@
+#!/bin/bash
+
+# 生成网关本地开发 / 基准用的自签名证书（ECDSA P-256），以及一个 session ticket 密钥文件
+# 依赖 openssl
+#
+# 用法：
+#   ./scripts/gen-dev-cert.sh [输出目录]
+#   ./scripts/gen-dev-cert.sh server/gateway/certs
+
+set -e
+
+OUT_DIR=${1:-server/gateway/certs}
+mkdir -p "$OUT_DIR"
+
+openssl req -x509 -newkey ec -pkeyopt ec_paramgen_curve:prime256v1 -nodes \
+  -keyout "$OUT_DIR/gateway.key" -out "$OUT_DIR/gateway.crt" -days 365 \
+  -subj "/CN=localhost" \
+  -addext "subjectAltName=DNS:localhost,IP:127.0.0.1"
+
+# 48 字节：16 字节名称 + 16 字节 HMAC 密钥 + 16 字节 AES 密钥
+openssl rand -base64 48 > "$OUT_DIR/ticket-keys"
+
+echo "✓ 证书: $OUT_DIR/gateway.crt"
+echo "✓ 私钥: $OUT_DIR/gateway.key"
+echo "✓ Ticket 密钥: $OUT_DIR/ticket-keys"
@@ -18,7 +18,12 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(AppException.class)
     public ResponseEntity<ApiResponse<Void>> handleAppException(AppException e) {
-        log.error("AppException: code={}, message={}", e.getCode(), e.getMessage());
+        // 客户端请求导致的错误用 info，受日志限流；服务端故障（5xx，如会话写入超时）保留 warn
+        if (e.getCode() >= 500) {
+            log.warn("AppException: code={}, message={}", e.getCode(), e.getMessage(), e.getCause());
+        } else {
+            log.info("AppException: code={}, message={}", e.getCode(), e.getMessage());
+        }
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getCode(), e.getMessage()));
@@ -26,7 +31,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(AuthException.class)
     public ResponseEntity<ApiResponse<Void>> handleAuthException(AuthException e) {
-        log.error("AuthException: code={}, message={}", e.getCode(), e.getMessage());
+        // 撞库时每个请求一条，失败已记入安全事件
+        log.debug("AuthException: code={}, message={}", e.getCode(), e.getMessage());
         return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
                 .body(ApiResponse.error(e.getCode(), e.getMessage()));
@@ -41,7 +47,7 @@ public class GlobalExceptionHandler {
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        log.error("Validation error: {}", errors);
+        log.debug("Validation error: {}", errors);
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ApiResponse<>(400, "Validation failed", errors));
@@ -0,0 +1,120 @@
+package com.appfactory.gateway.compression;
+
+import io.netty.buffer.ByteBufAllocator;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 写出响应体时按上游响应头决定是否压缩
+ *
+ * 只覆盖 writeWith：流式媒体类型（SSE 等）经 writeAndFlushWith 写出，保持原样
+ */
+class CompressingServerHttpResponse extends ServerHttpResponseDecorator {
+
+    private final String routeId;
+    private final ContentCoding coding;
+    private final ResponseCompressionFilter.Settings settings;
+    private final CompressionProperties properties;
+    private final CompressionMeters meters;
+
+    CompressingServerHttpResponse(ServerHttpResponse delegate, String routeId, ContentCoding coding,
+                                  ResponseCompressionFilter.Settings settings, CompressionProperties properties,
+                                  CompressionMeters meters) {
+        super(delegate);
+        this.routeId = routeId;
+        this.coding = coding;
+        this.settings = settings;
+        this.properties = properties;
+        this.meters = meters;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        String skipReason = skipReason();
+        if (skipReason != null) {
+            meters.recordSkipped(routeId, skipReason);
+            return super.writeWith(body);
+        }
+
+        HttpHeaders headers = getHeaders();
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.set(HttpHeaders.CONTENT_ENCODING, coding.token());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // 编码后的字节不同，强 ETag 降为弱 ETag
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            headers.setETag("W/" + etag);
+        }
+
+        NettyDataBufferFactory bufferFactory = nettyBufferFactory();
+        ByteBufAllocator allocator = bufferFactory.getByteBufAllocator();
+        Flux<DataBuffer> compressed = Flux.using(
+                () -> new StreamCompressor(coding, properties.getGzipLevel(), properties.getBrotliQuality(), allocator),
+                compressor -> Flux.from(body)
+                        .concatMapIterable(buffer -> compressor.encode(NettyDataBufferFactory.toByteBuf(buffer)))
+                        .concatWith(Flux.defer(() -> Flux.fromIterable(compressor.finish())))
+                        .map(bufferFactory::wrap)
+                        .doOnComplete(() -> meters.recordCompressed(routeId, coding,
+                                compressor.bytesIn(), compressor.bytesOut(), compressor.encodeNanos())),
+                StreamCompressor::close);
+        return super.writeWith(compressed);
+    }
+
+    private String skipReason() {
+        HttpStatusCode status = getStatusCode();
+        if (status != null && (status.is1xxInformational() || status.value() == 204 || status.value() == 304)) {
+            return "no_body";
+        }
+        HttpHeaders headers = getHeaders();
+        // Content-Range 指向未压缩的字节，压缩后范围与内容对不上
+        if ((status != null && status.value() == 206) || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+            return "partial_content";
+        }
+        String contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding)) {
+            return "already_encoded";
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && cacheControl.contains("no-transform")) {
+            return "no_transform";
+        }
+        if (!isCompressible(headers.getContentType(), settings.contentTypes())) {
+            return "content_type";
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength >= 0 && contentLength < settings.minSize()) {
+            return "below_min_size";
+        }
+        return null;
+    }
+
+    private static boolean isCompressible(MediaType contentType, List<MediaType> allowed) {
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType type : allowed) {
+            if (type.includes(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private NettyDataBufferFactory nettyBufferFactory() {
+        DataBufferFactory factory = bufferFactory();
+        return factory instanceof NettyDataBufferFactory netty
+                ? netty
+                : new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+    }
+}
@@ -0,0 +1,78 @@
+package com.appfactory.gateway.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压缩指标，按路由和编码缓存：
+ * - gateway.compression.ratio：压缩后 / 压缩前字节数
+ * - gateway.compression.time：编码器耗时（在事件循环线程上同步执行，即 CPU 开销）
+ * - gateway.compression.bytes{direction=in|out}
+ * - gateway.compression.skipped{reason}：启用压缩但未压缩的响应
+ */
+public class CompressionMeters {
+
+    private final MeterRegistry registry;
+    private final Map<String, Encoded> encoded = new ConcurrentHashMap<>();
+    private final Map<String, Counter> skipped = new ConcurrentHashMap<>();
+
+    public CompressionMeters(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void recordCompressed(String routeId, ContentCoding coding, long bytesIn, long bytesOut, long encodeNanos) {
+        if (bytesIn == 0) {
+            return;
+        }
+        Encoded meters = encoded.computeIfAbsent(routeId + '|' + coding.token(),
+                key -> new Encoded(routeId, coding.token()));
+        meters.ratio.record((double) bytesOut / bytesIn);
+        meters.time.record(encodeNanos, TimeUnit.NANOSECONDS);
+        meters.in.increment(bytesIn);
+        meters.out.increment(bytesOut);
+    }
+
+    void recordSkipped(String routeId, String reason) {
+        skipped.computeIfAbsent(routeId + '|' + reason, key -> Counter.builder("gateway.compression.skipped")
+                        .tag("route", routeId)
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    private final class Encoded {
+        private final DistributionSummary ratio;
+        private final Timer time;
+        private final Counter in;
+        private final Counter out;
+
+        Encoded(String routeId, String encoding) {
+            this.ratio = DistributionSummary.builder("gateway.compression.ratio")
+                    .tag("route", routeId)
+                    .tag("encoding", encoding)
+                    .publishPercentiles(0.5, 0.9)
+                    .register(registry);
+            this.time = Timer.builder("gateway.compression.time")
+                    .tag("route", routeId)
+                    .tag("encoding", encoding)
+                    .register(registry);
+            this.in = bytes(routeId, encoding, "in");
+            this.out = bytes(routeId, encoding, "out");
+        }
+
+        private Counter bytes(String routeId, String encoding, String direction) {
+            return Counter.builder("gateway.compression.bytes")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .tag("encoding", encoding)
+                    .tag("direction", direction)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.appfactory.gateway.compression;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应压缩配置，routes 下按路由 ID 覆盖全局值
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 小于该字节数的响应（按上游 Content-Length）不压缩；没有 Content-Length 的分块响应总是压缩
+     */
+    private int minSize = 512;
+
+    /**
+     * 可压缩的 Content-Type，支持 text/* 形式的通配
+     */
+    private List<String> contentTypes = new ArrayList<>(List.of(
+            "application/json", "application/problem+json", "application/xml",
+            "application/javascript", "text/*"));
+
+    /**
+     * gzip 压缩级别（1-9）
+     */
+    private int gzipLevel = 6;
+
+    /**
+     * 客户端同时接受 br 和 gzip 时优先 br；brotli4j 原生库不可用时自动只用 gzip。
+     * 默认关闭：原生库只有 glibc 版本，Alpine 运行镜像中无法加载
+     */
+    private boolean brotliEnabled = false;
+
+    /**
+     * Brotli 质量（0-11），动态内容取 4 左右，压缩率接近 gzip 6 以上而耗时更低
+     */
+    private int brotliQuality = 4;
+
+    private Map<String, RouteCompression> routes = new LinkedHashMap<>();
+
+    /**
+     * 单条路由的覆盖项，未设置的字段沿用全局值
+     */
+    @Data
+    public static class RouteCompression {
+        private Boolean enabled;
+        private Integer minSize;
+        private List<String> contentTypes;
+    }
+}
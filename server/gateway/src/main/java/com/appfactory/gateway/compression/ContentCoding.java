@@ -0,0 +1,71 @@
+package com.appfactory.gateway.compression;
+
+import java.util.Locale;
+
+/**
+ * 支持的响应编码，按 Accept-Encoding 协商
+ */
+public enum ContentCoding {
+
+    BR("br"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    /**
+     * 选 q 值最高的可用编码，q 相同时 br 优先；q=0 表示拒绝，* 匹配未单独列出的编码。
+     * 没有可用编码时返回 null
+     */
+    public static ContentCoding negotiate(String acceptEncoding, boolean brotliAvailable) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double brQ = -1;
+        double gzipQ = -1;
+        double wildcardQ = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String name = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(tokens);
+            switch (name) {
+                case "br" -> brQ = q;
+                case "gzip", "x-gzip" -> gzipQ = Math.max(gzipQ, q);
+                case "*" -> wildcardQ = q;
+                default -> {
+                }
+            }
+        }
+        if (brQ < 0) {
+            brQ = wildcardQ;
+        }
+        if (gzipQ < 0) {
+            gzipQ = wildcardQ;
+        }
+        if (brotliAvailable && brQ > 0 && brQ >= gzipQ) {
+            return BR;
+        }
+        return gzipQ > 0 ? GZIP : null;
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.appfactory.gateway.compression;
+
+import io.netty.handler.codec.compression.Brotli;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网关响应压缩
+ *
+ * 按请求的 Accept-Encoding 协商 br / gzip，替换 exchange 中的响应对象；
+ * 是否真正压缩在写出响应体时按上游响应头决定（见 CompressingServerHttpResponse）。
+ * 路由级配置在首次使用时合并全局值并缓存
+ */
+@Slf4j
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+    private final CompressionProperties properties;
+    private final CompressionMeters meters;
+    private final boolean brotliAvailable;
+    private final Map<String, Settings> settingsByRoute = new ConcurrentHashMap<>();
+
+    public ResponseCompressionFilter(CompressionProperties properties, CompressionMeters meters) {
+        this.properties = properties;
+        this.meters = meters;
+        this.brotliAvailable = properties.isBrotliEnabled() && Brotli.isAvailable();
+        if (properties.isBrotliEnabled() && !brotliAvailable) {
+            log.warn("Brotli unavailable, compressing with gzip only: {}", String.valueOf(Brotli.cause()));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        Settings settings = settingsByRoute.computeIfAbsent(routeId, this::resolve);
+        if (!settings.enabled() || HttpMethod.HEAD.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+
+        ContentCoding coding = ContentCoding.negotiate(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING), brotliAvailable);
+        if (coding == null) {
+            return chain.filter(exchange);
+        }
+        CompressingServerHttpResponse response = new CompressingServerHttpResponse(
+                exchange.getResponse(), routeId, coding, settings, properties, meters);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // 必须早于 NettyWriteResponseFilter，它在链返回后通过 exchange 中的响应对象写出上游响应体
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private Settings resolve(String routeId) {
+        CompressionProperties.RouteCompression override = properties.getRoutes().get(routeId);
+        boolean enabled = properties.isEnabled();
+        int minSize = properties.getMinSize();
+        List<String> contentTypes = properties.getContentTypes();
+        if (override != null) {
+            enabled = override.getEnabled() != null ? override.getEnabled() : enabled;
+            minSize = override.getMinSize() != null ? override.getMinSize() : minSize;
+            contentTypes = override.getContentTypes() != null ? override.getContentTypes() : contentTypes;
+        }
+        return new Settings(enabled, minSize, contentTypes.stream().map(MediaType::parseMediaType).toList());
+    }
+
+    record Settings(boolean enabled, int minSize, List<MediaType> contentTypes) {
+    }
+}
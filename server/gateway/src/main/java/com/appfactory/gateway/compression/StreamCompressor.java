@@ -0,0 +1,89 @@
+package com.appfactory.gateway.compression;
+
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.BrotliEncoder;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个响应体的流式压缩
+ *
+ * 与 Netty HttpContentCompressor 相同，用 EmbeddedChannel 驱动 Netty 的编码器：
+ * 输入缓冲交给编码器后释放，输出缓冲从响应所用的（池化）分配器申请，直接作为响应体写出
+ */
+final class StreamCompressor {
+
+    private final EmbeddedChannel channel;
+    private long bytesIn;
+    private long bytesOut;
+    private long encodeNanos;
+
+    StreamCompressor(ContentCoding coding, int gzipLevel, int brotliQuality, ByteBufAllocator allocator) {
+        this.channel = new EmbeddedChannel(coding == ContentCoding.BR
+                ? new BrotliEncoder(new Encoder.Parameters().setQuality(brotliQuality))
+                : ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP, gzipLevel));
+        this.channel.config().setAllocator(allocator);
+    }
+
+    /**
+     * 压缩一段输入并取得已产生的输出，input 的所有权转移给编码器
+     */
+    List<ByteBuf> encode(ByteBuf input) {
+        long start = System.nanoTime();
+        bytesIn += input.readableBytes();
+        channel.writeOutbound(input);
+        List<ByteBuf> output = drain();
+        encodeNanos += System.nanoTime() - start;
+        return output;
+    }
+
+    /**
+     * 结束压缩流（gzip trailer / brotli 结束块）
+     */
+    List<ByteBuf> finish() {
+        long start = System.nanoTime();
+        channel.finish();
+        List<ByteBuf> output = drain();
+        encodeNanos += System.nanoTime() - start;
+        return output;
+    }
+
+    /**
+     * 释放未取走的输出，出错或取消时由 Flux.using 调用
+     */
+    void close() {
+        channel.finishAndReleaseAll();
+    }
+
+    long bytesIn() {
+        return bytesIn;
+    }
+
+    long bytesOut() {
+        return bytesOut;
+    }
+
+    long encodeNanos() {
+        return encodeNanos;
+    }
+
+    private List<ByteBuf> drain() {
+        List<ByteBuf> output = new ArrayList<>(2);
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            if (buf.isReadable()) {
+                bytesOut += buf.readableBytes();
+                output.add(buf);
+            } else {
+                buf.release();
+            }
+        }
+        return output;
+    }
+}
@@ -0,0 +1,25 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.compression.CompressionMeters;
+import com.appfactory.gateway.compression.CompressionProperties;
+import com.appfactory.gateway.compression.ResponseCompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关响应压缩：gateway.compression.enabled=false 时整体关闭，单条路由可在 routes 下关闭
+ */
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+@ConditionalOnProperty(prefix = "gateway.compression", name = "enabled", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public ResponseCompressionFilter responseCompressionFilter(CompressionProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new ResponseCompressionFilter(properties, new CompressionMeters(meterRegistry));
+    }
+}
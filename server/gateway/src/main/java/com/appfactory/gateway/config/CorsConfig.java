@@ -38,7 +38,8 @@ public class CorsConfig {
                 "Authorization",
                 "X-Total-Count",
                 "X-Page-Number",
-                "X-Page-Size"
+                "X-Page-Size",
+                "Idempotent-Replayed"
         ));
 
         // 预检请求的缓存时间（秒）
@@ -1,29 +1,44 @@
 package com.appfactory.gateway.config;
 
+import com.appfactory.gateway.filter.ClientIpProperties;
+import com.appfactory.gateway.websocket.WebSocketAdmissionProperties;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
 import reactor.core.publisher.Mono;
 
 /**
  * Gateway 路由辅助配置
  *
  * 路由规则在 application.yml 中配置
- * 这里只定义限流相关的 Bean
+ * 这里只定义限流相关的 Bean，以及请求计时依赖的 ServerWebExchangeContextFilter
  */
 @Configuration
+@EnableConfigurationProperties({WebSocketAdmissionProperties.class, ClientIpProperties.class})
 public class GatewayConfig {
 
     /**
      * Redis 限流器配置
      * replenishRate: 每秒允许的请求数
      * burstCapacity: 突发容量
+     * 每次检查记录一个 gateway.rate-limit span
      */
     @Bean
-    public RedisRateLimiter redisRateLimiter() {
-        return new RedisRateLimiter(10, 20);
+    public RedisRateLimiter redisRateLimiter(ObservationRegistry observationRegistry) {
+        return new ObservedRedisRateLimiter(10, 20, observationRegistry);
+    }
+
+    /**
+     * 把 exchange 放入 Reactor 上下文，限流器和上游 HttpClient 回调据此找到请求的 RequestTiming
+     */
+    @Bean
+    public ServerWebExchangeContextFilter serverWebExchangeContextFilter() {
+        return new ServerWebExchangeContextFilter();
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.loadbalancer.AdaptiveLoadBalancer;
+import com.appfactory.gateway.loadbalancer.InstanceStatsRegistry;
+import com.appfactory.gateway.loadbalancer.LoadBalancerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 客户端负载均衡配置
+ *
+ * lb://{serviceId} 路由的实例列表来自 spring.cloud.discovery.client.simple.instances，
+ * 每个 serviceId 使用 AdaptiveLoadBalancer 选择实例
+ */
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.ClientConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * 每个 serviceId 子上下文中的配置，不能加 @Configuration，否则会被主上下文扫描
+     */
+    static class ClientConfiguration {
+
+        @Bean
+        public ReactorLoadBalancer<ServiceInstance> adaptiveLoadBalancer(
+                Environment environment,
+                LoadBalancerClientFactory clientFactory,
+                InstanceStatsRegistry statsRegistry,
+                LoadBalancerProperties properties) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new AdaptiveLoadBalancer(
+                    serviceId,
+                    clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                    statsRegistry,
+                    properties);
+        }
+    }
+}
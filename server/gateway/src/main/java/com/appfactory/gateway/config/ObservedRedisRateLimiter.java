@@ -0,0 +1,126 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.jfr.RateLimitDecisionEvent;
+import com.appfactory.gateway.telemetry.RequestTiming;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import jdk.jfr.EventType;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.observability.DefaultSignalListener;
+import reactor.core.observability.SignalListener;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+/**
+ * 记录限流检查 span（gateway.rate-limit）的 RedisRateLimiter
+ *
+ * 限流脚本的 Redis 往返本身不带 span，这里覆盖整个检查过程，并标记是否放行；
+ * 耗时同时计入 gateway.request.phase 的 rate_limit 阶段，并记录 JFR 事件 RateLimitDecision。
+ * 未采样且未录制 JFR 时只挂 RequestTiming 的限流计时监听器，不创建 span 和事件
+ */
+public class ObservedRedisRateLimiter extends RedisRateLimiter {
+
+    private static final EventType DECISION_EVENT = EventType.getEventType(RateLimitDecisionEvent.class);
+
+    private final ObservationRegistry observationRegistry;
+    private final Function<ContextView, SignalListener<Response>> listeners = this::listener;
+
+    public ObservedRedisRateLimiter(int replenishRate, int burstCapacity, ObservationRegistry observationRegistry) {
+        super(replenishRate, burstCapacity);
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return super.isAllowed(routeId, id).tap(listeners);
+    }
+
+    private SignalListener<Response> listener(ContextView context) {
+        SignalListener<Response> timing = RequestTiming.rateLimitListener(context);
+        Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        boolean traced = parent != null && !parent.isNoop();
+        if (!traced && !DECISION_EVENT.isEnabled()) {
+            return timing;
+        }
+        return new ObservedListener(timing, traced ? parent : null, routeId(context));
+    }
+
+    private static String routeId(ContextView context) {
+        ServerWebExchange exchange =
+                context.getOrDefault(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE, null);
+        Route route = exchange != null ? exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR) : null;
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private long remaining(Response response) {
+        String remaining = response.getHeaders().get(getRemainingHeader());
+        try {
+            return remaining != null ? Long.parseLong(remaining) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 采样的请求上记录 span，JFR 录制中记录事件；阶段计时仍交给 RequestTiming 的监听器
+     */
+    private final class ObservedListener extends DefaultSignalListener<Response> {
+
+        private final SignalListener<Response> timing;
+        private final Observation observation;
+        private final RateLimitDecisionEvent event = new RateLimitDecisionEvent();
+        private final String routeId;
+
+        ObservedListener(SignalListener<Response> timing, Observation parent, String routeId) {
+            this.timing = timing;
+            this.observation = parent != null
+                    ? Observation.createNotStarted("gateway.rate-limit", observationRegistry)
+                            .parentObservation(parent)
+                            .lowCardinalityKeyValue("route", routeId)
+                    : null;
+            this.routeId = routeId;
+        }
+
+        @Override
+        public void doOnSubscription() throws Throwable {
+            if (observation != null) {
+                observation.start();
+            }
+            event.begin();
+            timing.doOnSubscription();
+        }
+
+        @Override
+        public void doOnNext(Response response) throws Throwable {
+            timing.doOnNext(response);
+            if (observation != null) {
+                observation.lowCardinalityKeyValue("allowed", String.valueOf(response.isAllowed()));
+            }
+            if (event.isEnabled()) {
+                event.record(routeId, response.isAllowed(), remaining(response));
+            }
+        }
+
+        @Override
+        public void doOnError(Throwable error) {
+            if (observation != null) {
+                observation.error(error);
+            }
+        }
+
+        @Override
+        public void doFinally(SignalType terminationType) {
+            if (observation != null) {
+                observation.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.route.IndexedRoutePredicateHandlerMapping;
+import com.appfactory.gateway.route.RouteIndex;
+import com.appfactory.gateway.route.RoutingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 路由匹配配置
+ *
+ * 用索引版本替换默认的 RoutePredicateHandlerMapping（默认 Bean 为 @ConditionalOnMissingBean）
+ */
+@Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
+public class RoutingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.routing", name = "index-enabled", matchIfMissing = true)
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment,
+                                                                     RouteIndex routeIndex) {
+        return new IndexedRoutePredicateHandlerMapping(
+                webHandler, routeLocator, globalCorsProperties, environment, routeIndex);
+    }
+}
@@ -0,0 +1,23 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.tls.TlsProperties;
+import com.appfactory.gateway.tls.TlsServerCustomizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关 TLS 终结：配置了 server.ssl.bundle 时生效（tls profile）
+ */
+@Configuration
+@EnableConfigurationProperties(TlsProperties.class)
+public class TlsConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "server.ssl", name = "bundle")
+    public TlsServerCustomizer tlsServerCustomizer(TlsProperties properties, MeterRegistry meterRegistry) {
+        return new TlsServerCustomizer(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,150 @@
+package com.appfactory.gateway.config;
+
+import com.appfactory.gateway.filter.JwtVerifier;
+import com.appfactory.gateway.filter.TokenRevocationCache;
+import com.appfactory.gateway.filter.WarmupRequestFilter;
+import com.appfactory.warmup.WarmupWorkload;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+
+import javax.crypto.SecretKey;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 启动预热负载（见 warmup 模块的 WarmupRunner）
+ *
+ * - jwt：签发并验签 Token，查询吊销缓存
+ * - filter-chain：经本地回环发送带无效/过期 Token 的请求，走完路由匹配、全局过滤器和错误响应，
+ *   在 JwtAuthenticationFilter 处返回 401，不会转发到下游服务。请求带 WarmupRequestFilter 的标记，
+ *   不计入请求遥测、JFR 事件和 http.server.requests，认证失败只打 debug 日志。
+ *   服务端开启 TLS 时使用 https，只连本机，不校验证书
+ */
+@Configuration
+public class WarmupConfig {
+
+    private static final String WARMUP_PATH = "/api/v1/users/me";
+
+    @Bean
+    public WarmupWorkload jwtWarmup(@Value("${jwt.secret}") String jwtSecret, JwtVerifier jwtVerifier,
+                                    TokenRevocationCache revocationCache) {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return WarmupWorkload.of("jwt", iteration -> {
+            Claims claims = jwtVerifier.verify(signedToken(key, iteration, 3600_000L));
+            revocationCache.isRevoked(claims.getSubject(), claims.getIssuedAt());
+        });
+    }
+
+    @Bean
+    public WarmupWorkload filterChainWarmup(@Value("${jwt.secret}") String jwtSecret, Environment environment,
+                                            ServerProperties serverProperties) throws GeneralSecurityException {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        boolean tls = Ssl.isEnabled(serverProperties.getSsl());
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1));
+        if (tls) {
+            builder.sslContext(loopbackSslContext());
+        }
+        HttpClient client = builder.build();
+        String scheme = tls ? "https" : "http";
+        SecretKey foreignKey = Jwts.SIG.HS256.key().build();
+        return WarmupWorkload.of("filter-chain", iteration -> {
+            // 交替使用签名错误和已过期的 Token，覆盖两条拒绝路径
+            String token = iteration % 2 == 0
+                    ? signedToken(foreignKey, iteration, 3600_000L)
+                    : signedToken(key, iteration, -60_000L);
+            String port = environment.getProperty("local.server.port", "8080");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(scheme + "://127.0.0.1:" + port + WARMUP_PATH))
+                    .header("Authorization", "Bearer " + token)
+                    .header(WarmupRequestFilter.HEADER, WarmupRequestFilter.token())
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 401) {
+                throw new IllegalStateException("Unexpected warm-up response status " + response.statusCode());
+            }
+        });
+    }
+
+    /**
+     * 预热请求不产生 http.server.requests 指标和 span；观测在 WebFilter 之前开始，直接检查请求头
+     */
+    @Bean
+    public ObservationPredicate warmupObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext serverContext
+                && WarmupRequestFilter.isWarmup(serverContext.getCarrier()));
+    }
+
+    /**
+     * 只用于连接本机的预热客户端：证书签发给对外域名（开发环境为自签名证书），不做校验
+     */
+    private static SSLContext loopbackSslContext() throws GeneralSecurityException {
+        TrustManager trustAll = new X509ExtendedTrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            }
+
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[]{trustAll}, null);
+        return context;
+    }
+
+    private static String signedToken(SecretKey key, int iteration, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(String.valueOf(-1L - iteration))
+                .claims(Map.of("email", "", "appId", "warmup", "roles", "USER"))
+                .issuedAt(new Date(now - 120_000L))
+                .expiration(new Date(now + ttlMillis))
+                .signWith(key)
+                .compact();
+    }
+}
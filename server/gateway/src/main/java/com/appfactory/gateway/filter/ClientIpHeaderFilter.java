@@ -0,0 +1,57 @@
+package com.appfactory.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 把客户端地址写入 X-Client-IP 转发给下游
+ *
+ * 网关是边缘时地址取自连接的对端；前面有负载均衡或 TLS 代理时（gateway.client-ip.trusted-hops），
+ * 只采用受信代理追加到 X-Forwarded-For 的地址，否则所有客户端都是代理的地址，下游的 IP 限流会变成全局计数。
+ * 客户端自带的 X-Client-IP 一律丢弃。下游按该请求头做登录限流和安全事件记录
+ */
+@Component
+public class ClientIpHeaderFilter implements GlobalFilter, Ordered {
+
+    public static final String CLIENT_IP_HEADER = "X-Client-IP";
+
+    private final RemoteAddressResolver resolver;
+
+    public ClientIpHeaderFilter(ClientIpProperties properties) {
+        this.resolver = properties.getTrustedHops() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.getTrustedHops())
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        InetSocketAddress remote = resolver.resolve(exchange);
+        // X-Forwarded-For 中取到的地址是未解析的，只有字符串形式
+        String ip = remote == null ? null
+                : remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(CLIENT_IP_HEADER);
+                    if (ip != null) {
+                        headers.set(CLIENT_IP_HEADER, ip);
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // 早于认证和限流，之后的过滤器看到的都是网关写入的值
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
@@ -0,0 +1,20 @@
+package com.appfactory.gateway.filter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 客户端地址解析配置
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.client-ip")
+public class ClientIpProperties {
+
+    /**
+     * 网关前面受信代理的层数（外部负载均衡、TLS 代理等），按部署环境配置
+     *
+     * 0 表示网关就是边缘，直接使用连接对端地址；n 表示从 X-Forwarded-For 末尾往前数第 n 个地址，
+     * 只有这 n 层代理追加的地址可信，更靠前的由客户端填写，不采用。X-Forwarded-For 缺失或层数不足时回退到对端地址
+     */
+    private int trustedHops = 0;
+}
@@ -1,15 +1,23 @@
 package com.appfactory.gateway.filter;
 
+import com.appfactory.gateway.jfr.JwtVerificationEvent;
+import com.appfactory.gateway.route.IndexedRoutePredicateHandlerMapping;
+import com.appfactory.gateway.route.RouteIndex;
+import com.appfactory.gateway.telemetry.Phase;
+import com.appfactory.gateway.telemetry.RequestTiming;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -18,41 +26,38 @@ import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 
 /**
  * JWT 认证全局过滤器
  *
  * 功能：
  * - 验证 JWT Token 有效性
+ * - 拒绝已吊销的 Token（内存校验，见 TokenRevocationCache）
  * - 提取用户信息并添加到请求头
- * - 放行公开路由
+ * - 放行公开路由（gateway.routing.public-paths，或最终选中的路由 metadata 为 auth: public）
+ * - 验签过程记录为 gateway.jwt.verify span，验签和吊销检查耗时计入 auth 阶段
+ * - 验签和吊销检查的结果记录为 JFR 事件 appfactory.gateway.JwtVerification
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
-    /**
-     * 不需要认证的路径前缀
-     */
-    private static final List<String> PUBLIC_PATH_PREFIXES = List.of(
-            "/api/v1/auth/",  // 所有认证相关接口都是公开的
-            "/actuator/"
-    );
+    private final TokenRevocationCache revocationCache;
+    private final ObservationRegistry observationRegistry;
+    private final JwtVerifier jwtVerifier;
+    private final RouteIndex routeIndex;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
-        // 检查是否是公开路径
-        if (isPublicPath(path)) {
+        // 检查是否是公开路径或公开路由
+        if (isPublicPath(exchange, path)) {
             return chain.filter(exchange);
         }
 
@@ -64,9 +69,27 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
+        return Mono.deferContextual(context -> authenticate(exchange, chain, token, context));
+    }
+
+    private Mono<Void> authenticate(ServerWebExchange exchange, GatewayFilterChain chain,
+                                    String token, ContextView context) {
+        ServerHttpRequest request = exchange.getRequest();
+
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             // 验证 JWT Token
-            Claims claims = validateToken(token);
+            Claims claims = verifyObserved(exchange, token, context);
+            boolean revoked = revocationCache.isRevoked(claims.getSubject(), claims.getIssuedAt());
+            RequestTiming.record(exchange, Phase.AUTH, System.nanoTime() - start);
+
+            if (revoked) {
+                return reject(exchange, event, JwtVerificationEvent.REVOKED,
+                        "Revoked JWT token for path: {}", "Token revoked");
+            }
+            event.record(JwtVerificationEvent.VALID);
 
             // 提取用户信息并添加到请求头，供下游服务使用
             ServerHttpRequest modifiedRequest = request.mutate()
@@ -79,28 +102,59 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange.mutate().request(modifiedRequest).build());
 
         } catch (ExpiredJwtException e) {
-            log.warn("JWT token expired for path: {}", path);
-            return onError(exchange, "Token expired", HttpStatus.UNAUTHORIZED);
+            return reject(exchange, event, JwtVerificationEvent.EXPIRED,
+                    "JWT token expired for path: {}", "Token expired");
         } catch (SignatureException | MalformedJwtException e) {
-            log.warn("Invalid JWT token for path: {}", path);
-            return onError(exchange, "Invalid token", HttpStatus.UNAUTHORIZED);
+            return reject(exchange, event, JwtVerificationEvent.INVALID,
+                    "Invalid JWT token for path: {}", "Invalid token");
         } catch (Exception e) {
+            event.record(JwtVerificationEvent.INVALID);
             log.error("JWT validation error: {}", e.getMessage());
             return onError(exchange, "Authentication failed", HttpStatus.UNAUTHORIZED);
         }
     }
 
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATH_PREFIXES.stream().anyMatch(path::startsWith);
+    /**
+     * 启动预热故意发送无效 Token，拒绝时不记 JFR 事件，日志降为 debug，避免每次启动产生数千条 warn
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, JwtVerificationEvent event, String outcome,
+                              String logFormat, String message) {
+        String path = exchange.getRequest().getPath().value();
+        if (WarmupRequestFilter.isWarmup(exchange)) {
+            log.debug(logFormat, path);
+        } else {
+            event.record(outcome);
+            log.warn(logFormat, path);
+        }
+        return onError(exchange, message, HttpStatus.UNAUTHORIZED);
     }
 
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * 路由级策略只看选中的路由，不看候选路由：同一 Path 上按 Method 区分的两条路由，
+     * 其中一条公开不能让另一条也免认证
+     */
+    private boolean isPublicPath(ServerWebExchange exchange, String path) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null && RouteIndex.isPublicRoute(route)) {
+            return true;
+        }
+        // 公开路径的匹配结果在路由匹配阶段已由 RouteIndex 给出
+        Boolean publicPath = exchange.getAttribute(IndexedRoutePredicateHandlerMapping.PUBLIC_PATH_ATTR);
+        return publicPath != null ? publicPath : routeIndex.isPublic(path);
+    }
+
+    /**
+     * 验签 span 的父节点取自 Reactor 上下文中的请求 span
+     */
+    private Claims verifyObserved(ServerWebExchange exchange, String token, ContextView context) {
+        // 预热请求不产生 span
+        if (WarmupRequestFilter.isWarmup(exchange)) {
+            return jwtVerifier.verify(token);
+        }
+        Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        return Observation.createNotStarted("gateway.jwt.verify", observationRegistry)
+                .parentObservation(parent)
+                .observe(() -> jwtVerifier.verify(token));
     }
 
     private String getClaimAsString(Claims claims, String key) {
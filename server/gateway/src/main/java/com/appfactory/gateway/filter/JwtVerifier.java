@@ -0,0 +1,31 @@
+package com.appfactory.gateway.filter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JWT 验签
+ *
+ * 密钥和解析器只构建一次，供 JwtAuthenticationFilter 和启动预热共用
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+
+    public JwtVerifier(@Value("${jwt.secret}") String jwtSecret) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    public Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,128 @@
+package com.appfactory.gateway.filter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access Token 吊销表（内存）
+ *
+ * 以 "用户 ID → 签发截止时间" 保存吊销记录，iat 早于截止时间的 token 视为已吊销。
+ * 启动时从 Redis 快照加载，之后通过 pub/sub 增量同步，请求路径上只做一次 Map 查找。
+ * 每条记录把截止时间和过期时间打包成一个 long，过期后定期清理。
+ *
+ * 频道和快照 Key 与 user-service 的 TokenRevocationService 保持一致
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationCache {
+
+    private static final String REVOCATION_CHANNEL = "auth:revocations";
+    private static final String REVOCATION_SNAPSHOT_KEY = "auth:revocations:snapshot";
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    /**
+     * userId -> (cutoffEpochSeconds << 32) | expiresAtEpochSeconds
+     */
+    private final Map<String, Long> revocations = new ConcurrentHashMap<>();
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new ReactiveRedisMessageListenerContainer(connectionFactory);
+
+        // 先订阅再加载快照，避免两者之间的吊销消息丢失
+        subscriptions.add(listenerContainer.receive(ChannelTopic.of(REVOCATION_CHANNEL))
+                .doOnSubscribe(s -> loadSnapshot())
+                .doOnNext(message -> apply(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Revocation subscription lost, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe());
+
+        subscriptions.add(Flux.interval(PURGE_INTERVAL, PURGE_INTERVAL)
+                .subscribe(tick -> purgeExpired()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+        if (listenerContainer != null) {
+            listenerContainer.destroyLater().subscribe();
+        }
+    }
+
+    /**
+     * 判断 token 是否已被吊销，不涉及网络调用
+     */
+    public boolean isRevoked(String userId, Date issuedAt) {
+        if (userId == null || issuedAt == null || revocations.isEmpty()) {
+            return false;
+        }
+        Long packed = revocations.get(userId);
+        if (packed == null) {
+            return false;
+        }
+        long cutoff = packed >>> 32;
+        long expiresAt = packed & 0xFFFFFFFFL;
+        long issuedAtSeconds = issuedAt.getTime() / 1000;
+        return issuedAtSeconds < cutoff && System.currentTimeMillis() / 1000 < expiresAt;
+    }
+
+    private void loadSnapshot() {
+        long now = System.currentTimeMillis() / 1000;
+        redisTemplate.opsForZSet()
+                .rangeByScore(REVOCATION_SNAPSHOT_KEY, Range.closed((double) now, Double.MAX_VALUE))
+                .doOnNext(this::apply)
+                .count()
+                .subscribe(
+                        count -> log.info("Loaded {} token revocations from snapshot", count),
+                        e -> log.error("Failed to load token revocation snapshot", e));
+    }
+
+    private void apply(String entry) {
+        String[] parts = entry.split(":");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed revocation entry: {}", entry);
+            return;
+        }
+        try {
+            long cutoff = Long.parseLong(parts[1]);
+            long expiresAt = Long.parseLong(parts[2]);
+            long packed = (cutoff << 32) | (expiresAt & 0xFFFFFFFFL);
+            // 同一用户多次吊销时保留截止时间更晚的一条
+            revocations.merge(parts[0], packed, (oldValue, newValue) ->
+                    (newValue >>> 32) >= (oldValue >>> 32) ? newValue : oldValue);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation entry: {}", entry);
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        revocations.values().removeIf(packed -> (packed & 0xFFFFFFFFL) <= now);
+    }
+}
@@ -0,0 +1,69 @@
+package com.appfactory.gateway.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 识别启动预热发出的请求（见 WarmupConfig 的 filter-chain 负载）
+ *
+ * 预热请求带 X-Warmup 头，值为本进程启动时随机生成、只有预热负载知道的令牌。匹配时在 exchange 上标记，
+ * 认证失败日志、请求遥测和 JFR 事件据此跳过；外部请求带该头一律剥掉，不能借此隐藏自己的请求
+ */
+@Component
+public class WarmupRequestFilter implements WebFilter, Ordered {
+
+    public static final String HEADER = "X-Warmup";
+    public static final String WARMUP_ATTR = WarmupRequestFilter.class.getName() + ".warmup";
+
+    private static final String TOKEN = newToken();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getHeaders().containsKey(HEADER)) {
+            return chain.filter(exchange);
+        }
+        if (isWarmup(request)) {
+            exchange.getAttributes().put(WARMUP_ATTR, Boolean.TRUE);
+        }
+        ServerHttpRequest stripped = request.mutate().headers(headers -> headers.remove(HEADER)).build();
+        return chain.filter(exchange.mutate().request(stripped).build());
+    }
+
+    public static boolean isWarmup(ServerWebExchange exchange) {
+        return Boolean.TRUE.equals(exchange.getAttribute(WARMUP_ATTR));
+    }
+
+    /**
+     * 在 WebFilter 之前（http.server.requests 观测开始时）判断，用于观测谓词
+     */
+    public static boolean isWarmup(ServerHttpRequest request) {
+        return TOKEN.equals(request.getHeaders().getFirst(HEADER));
+    }
+
+    /**
+     * 预热负载写入 X-Warmup 的值
+     */
+    public static String token() {
+        return TOKEN;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
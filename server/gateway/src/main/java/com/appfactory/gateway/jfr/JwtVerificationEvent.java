@@ -0,0 +1,35 @@
+package com.appfactory.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 网关 JWT 验签和吊销检查
+ *
+ * 用法：new 之后 begin()，结束时调用 record；未开启录制时不赋值、不提交，事件对象经逃逸分析后不分配
+ */
+@Name("appfactory.gateway.JwtVerification")
+@Label("Gateway JWT Verification")
+@Category({"AppFactory", "Gateway"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    public static final String VALID = "valid";
+    public static final String REVOKED = "revoked";
+    public static final String EXPIRED = "expired";
+    public static final String INVALID = "invalid";
+
+    @Label("Outcome")
+    String outcome;
+
+    public void record(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
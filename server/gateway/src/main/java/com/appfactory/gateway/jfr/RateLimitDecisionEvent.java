@@ -0,0 +1,39 @@
+package com.appfactory.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 限流检查，耗时包含 Redis 脚本往返
+ */
+@Name("appfactory.gateway.RateLimitDecision")
+@Label("Rate Limit Decision")
+@Category({"AppFactory", "Gateway"})
+@StackTrace(false)
+public class RateLimitDecisionEvent extends Event {
+
+    @Label("Route")
+    String route;
+
+    @Label("Allowed")
+    boolean allowed;
+
+    /**
+     * 剩余令牌数，Redis 不可用时限流器放行并返回 -1
+     */
+    @Label("Tokens Remaining")
+    long remaining;
+
+    public void record(String route, boolean allowed, long remaining) {
+        end();
+        if (shouldCommit()) {
+            this.route = route;
+            this.allowed = allowed;
+            this.remaining = remaining;
+            commit();
+        }
+    }
+}
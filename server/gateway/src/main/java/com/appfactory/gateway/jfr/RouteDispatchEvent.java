@@ -0,0 +1,43 @@
+package com.appfactory.gateway.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次路由转发，从进入过滤器链到响应结束
+ */
+@Name("appfactory.gateway.RouteDispatch")
+@Label("Route Dispatch")
+@Category({"AppFactory", "Gateway"})
+@StackTrace(false)
+public class RouteDispatchEvent extends Event {
+
+    @Label("Route")
+    String route;
+
+    @Label("Method")
+    String method;
+
+    @Label("Status")
+    int status;
+
+    /**
+     * 负载均衡选中的实例（scheme://host:port），未到达上游时为空
+     */
+    @Label("Upstream")
+    String upstream;
+
+    public void record(String route, String method, int status, String upstream) {
+        end();
+        if (shouldCommit()) {
+            this.route = route;
+            this.method = method;
+            this.status = status;
+            this.upstream = upstream;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.appfactory.gateway.jfr;
+
+import com.appfactory.gateway.filter.WarmupRequestFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * 为每个请求记录 RouteDispatchEvent（启动预热的请求除外）；未开启录制时直接透传，不增加任何操作符
+ */
+@Component
+public class RouteDispatchEventFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteDispatchEvent event = new RouteDispatchEvent();
+        if (!event.isEnabled() || WarmupRequestFilter.isWarmup(exchange)) {
+            return chain.filter(exchange);
+        }
+        event.begin();
+        return chain.filter(exchange).doFinally(signal -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            URI upstream = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            event.record(route != null ? route.getId() : "unknown",
+                    exchange.getRequest().getMethod().name(),
+                    status != null ? status.value() : 0,
+                    upstream != null ? upstream.getScheme() + "://" + upstream.getAuthority() : null);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        // 紧随 RequestTelemetryFilter，覆盖认证、限流和上游转发
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
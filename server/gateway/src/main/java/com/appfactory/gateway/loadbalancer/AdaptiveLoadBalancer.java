@@ -0,0 +1,175 @@
+package com.appfactory.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 网关实例选择器
+ *
+ * - LEAST_OUTSTANDING：power of two choices，随机取两个健康实例，选在途请求少的
+ * - CONSISTENT_HASH：按 X-User-Id（JwtAuthenticationFilter 验证后写入）做一致性哈希，
+ *   提高下游缓存命中率；目标实例被摘除时沿哈希环顺延
+ */
+@Slf4j
+public class AdaptiveLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry statsRegistry;
+    private final LoadBalancerProperties.Strategy strategy;
+    private final int virtualNodes;
+
+    private volatile HashRing ring = HashRing.EMPTY;
+
+    public AdaptiveLoadBalancer(String serviceId,
+                                ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                InstanceStatsRegistry statsRegistry,
+                                LoadBalancerProperties properties) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.statsRegistry = statsRegistry;
+        this.strategy = properties.strategyFor(serviceId);
+        this.virtualNodes = properties.getVirtualNodes();
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next()
+                .map(instances -> choose(instances, request));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, Request<?> request) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+
+        if (strategy == LoadBalancerProperties.Strategy.CONSISTENT_HASH) {
+            String userId = resolveUserId(request);
+            if (userId != null) {
+                ServiceInstance instance = chooseByHash(instances, userId);
+                if (instance != null) {
+                    return new DefaultResponse(instance);
+                }
+            }
+        }
+
+        return new DefaultResponse(chooseLeastOutstanding(statsRegistry.healthy(instances)));
+    }
+
+    private ServiceInstance chooseLeastOutstanding(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 1) {
+            return instances.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return statsRegistry.get(a).outstanding() <= statsRegistry.get(b).outstanding() ? a : b;
+    }
+
+    private ServiceInstance chooseByHash(List<ServiceInstance> instances, String userId) {
+        HashRing current = ring;
+        if (!current.matches(instances)) {
+            current = HashRing.build(instances, virtualNodes);
+            ring = current;
+        }
+        List<ServiceInstance> healthy = statsRegistry.healthy(instances);
+        return current.lookup(hash(userId), healthy.size() == instances.size() ? null : healthy);
+    }
+
+    private String resolveUserId(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null) {
+            String userId = context.getClientRequest().getHeaders().getFirst(USER_ID_HEADER);
+            if (userId != null && !userId.isEmpty()) {
+                return userId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 64 位 FNV-1a，再做一次 murmur 风格混淆以打散相邻 ID
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 不可变哈希环，实例列表变化时整体替换
+     */
+    private record HashRing(List<ServiceInstance> instances, NavigableMap<Long, ServiceInstance> nodes) {
+
+        static final HashRing EMPTY = new HashRing(List.of(), new TreeMap<>());
+
+        static HashRing build(List<ServiceInstance> instances, int virtualNodes) {
+            TreeMap<Long, ServiceInstance> nodes = new TreeMap<>();
+            for (ServiceInstance instance : instances) {
+                String base = instance.getHost() + ":" + instance.getPort() + "#";
+                for (int i = 0; i < virtualNodes; i++) {
+                    nodes.put(hash(base + i), instance);
+                }
+            }
+            return new HashRing(List.copyOf(instances), nodes);
+        }
+
+        boolean matches(List<ServiceInstance> candidates) {
+            return instances.equals(candidates);
+        }
+
+        /**
+         * 顺时针查找第一个可用实例；allowed 为 null 表示所有实例都可用
+         */
+        ServiceInstance lookup(long key, List<ServiceInstance> allowed) {
+            if (nodes.isEmpty()) {
+                return null;
+            }
+            for (Map.Entry<Long, ServiceInstance> entry : nodes.tailMap(key, true).entrySet()) {
+                if (allowed == null || allowed.contains(entry.getValue())) {
+                    return entry.getValue();
+                }
+            }
+            for (Map.Entry<Long, ServiceInstance> entry : nodes.headMap(key, false).entrySet()) {
+                if (allowed == null || allowed.contains(entry.getValue())) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.appfactory.gateway.loadbalancer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实例运行时统计
+ *
+ * 记录每个实例的在途请求数、窗口内错误率和延迟 EWMA，
+ * 并据此做被动异常摘除。所有更新都是无锁的原子操作。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsRegistry {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final LoadBalancerProperties properties;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceStats get(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    public void onStart(ServiceInstance instance) {
+        get(instance).outstanding.incrementAndGet();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats s = get(instance);
+        s.outstanding.decrementAndGet();
+
+        if (!properties.getOutlier().isEnabled()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        s.rollWindow(now, properties.getOutlier().getInterval().toNanos());
+        long total = s.windowRequests.incrementAndGet();
+        long failures = failed ? s.windowFailures.incrementAndGet() : s.windowFailures.get();
+        if (latencyNanos > 0) {
+            s.recordLatency(latencyNanos);
+        }
+
+        LoadBalancerProperties.Outlier outlier = properties.getOutlier();
+        if (s.isEjected(now) || total < outlier.getMinRequests()) {
+            return;
+        }
+
+        boolean errorRateExceeded = (double) failures / total >= outlier.getErrorRateThreshold();
+        boolean latencyExceeded = s.ewmaLatencyNanos() > outlier.getLatencyThreshold().toNanos();
+        if (errorRateExceeded || latencyExceeded) {
+            long ejections = s.ejectionCount.incrementAndGet();
+            long duration = Math.min(
+                    outlier.getBaseEjectionTime().toNanos() * ejections,
+                    outlier.getMaxEjectionTime().toNanos());
+            s.ejectedUntil.set(now + duration);
+            s.resetWindow(now);
+            log.warn("Ejecting instance {} for {}ms (errorRate={}/{}, ewmaLatency={}ms)",
+                    key(instance), duration / 1_000_000, failures, total, s.ewmaLatencyNanos() / 1_000_000);
+        } else if (s.ejectionCount.get() > 0 && total >= outlier.getMinRequests()) {
+            // 恢复后一个完整窗口表现正常，清零连续摘除次数
+            s.ejectionCount.set(0);
+        }
+    }
+
+    /**
+     * 过滤掉已摘除的实例，摘除数量受 maxEjectionPercent 限制
+     */
+    public List<ServiceInstance> healthy(List<ServiceInstance> instances) {
+        if (!properties.getOutlier().isEnabled() || instances.size() <= 1) {
+            return instances;
+        }
+        long now = System.nanoTime();
+        List<ServiceInstance> available = instances.stream()
+                .filter(instance -> !get(instance).isEjected(now))
+                .toList();
+        int maxEjected = (int) (instances.size() * properties.getOutlier().getMaxEjectionPercent());
+        if (available.isEmpty() || instances.size() - available.size() > maxEjected) {
+            return instances;
+        }
+        return available;
+    }
+
+    private String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    public static class InstanceStats {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicLong windowRequests = new AtomicLong();
+        private final AtomicLong windowFailures = new AtomicLong();
+        private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToRawLongBits(0));
+        private final AtomicLong ejectedUntil = new AtomicLong();
+        private final AtomicLong ejectionCount = new AtomicLong();
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        public long ewmaLatencyNanos() {
+            return (long) Double.longBitsToDouble(ewmaLatencyBits.get());
+        }
+
+        public boolean isEjected(long now) {
+            return ejectedUntil.get() - now > 0;
+        }
+
+        private void rollWindow(long now, long intervalNanos) {
+            long start = windowStart.get();
+            if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+                windowRequests.set(0);
+                windowFailures.set(0);
+            }
+        }
+
+        private void resetWindow(long now) {
+            windowStart.set(now);
+            windowRequests.set(0);
+            windowFailures.set(0);
+        }
+
+        private void recordLatency(long latencyNanos) {
+            long prevBits;
+            long nextBits;
+            do {
+                prevBits = ewmaLatencyBits.get();
+                double prev = Double.longBitsToDouble(prevBits);
+                double next = prev == 0 ? latencyNanos : prev + EWMA_ALPHA * (latencyNanos - prev);
+                nextBits = Double.doubleToRawLongBits(next);
+            } while (!ewmaLatencyBits.compareAndSet(prevBits, nextBits));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.appfactory.gateway.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 网关客户端负载均衡配置
+ *
+ * 实例列表通过 spring.cloud.discovery.client.simple.instances.{serviceId} 配置，
+ * 这里只定义选择策略和异常实例摘除规则
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+    /**
+     * 默认策略
+     */
+    private Strategy defaultStrategy = Strategy.LEAST_OUTSTANDING;
+
+    /**
+     * 按服务覆盖策略，key 为 serviceId
+     */
+    private Map<String, Strategy> strategies = new HashMap<>();
+
+    /**
+     * 一致性哈希每个实例的虚拟节点数
+     */
+    private int virtualNodes = 160;
+
+    private Outlier outlier = new Outlier();
+
+    public Strategy strategyFor(String serviceId) {
+        return strategies.getOrDefault(serviceId, defaultStrategy);
+    }
+
+    public enum Strategy {
+        /**
+         * 随机取两个实例，选择在途请求更少的一个（power of two choices）
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * 按已验证的用户 ID 做一致性哈希，未登录请求回退到 LEAST_OUTSTANDING
+         */
+        CONSISTENT_HASH
+    }
+
+    /**
+     * 被动异常检测：根据错误率和延迟临时摘除实例
+     */
+    @Data
+    public static class Outlier {
+        private boolean enabled = true;
+
+        /**
+         * 统计窗口
+         */
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * 窗口内最少请求数，低于此值不判定
+         */
+        private int minRequests = 20;
+
+        /**
+         * 错误率阈值（5xx 或连接失败）
+         */
+        private double errorRateThreshold = 0.5;
+
+        /**
+         * 延迟 EWMA 阈值，超过即摘除（如 GC 停顿的实例）
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+
+        /**
+         * 基础摘除时长，连续摘除时按次数线性增长
+         */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+        /**
+         * 最长摘除时长
+         */
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+        /**
+         * 最多可摘除的实例比例，避免全部摘除导致无实例可用
+         */
+        private double maxEjectionPercent = 0.5;
+    }
+}
@@ -0,0 +1,69 @@
+package com.appfactory.gateway.route;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * 基于 RouteIndex 的路由匹配
+ *
+ * 默认实现对每个请求按顺序执行全部路由的断言；这里先用索引取出候选路由，
+ * 只对候选路由按原顺序执行完整断言，第一个通过的即为结果，与默认实现语义一致。
+ * 同时把路径是否匹配公开路径写入 exchange 属性，JwtAuthenticationFilter 不再重复匹配路径。
+ *
+ * 索引尚未构建、或路径含编码字符 / 矩阵参数（需按解码后的段匹配）时回退到默认实现
+ */
+@Slf4j
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    /**
+     * Boolean，请求路径是否匹配 gateway.routing.public-paths（不含路由级的 auth: public）
+     */
+    public static final String PUBLIC_PATH_ATTR = IndexedRoutePredicateHandlerMapping.class.getName() + ".publicPath";
+
+    private final RouteIndex routeIndex;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment,
+                                               RouteIndex routeIndex) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeIndex = routeIndex;
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        RouteIndex.Lookup lookup = path.indexOf('%') >= 0 || path.indexOf(';') >= 0
+                ? null
+                : routeIndex.lookup(path);
+        if (lookup == null) {
+            return super.lookupRoute(exchange);
+        }
+        exchange.getAttributes().put(PUBLIC_PATH_ATTR, lookup.publicPath());
+        if (lookup.candidates().isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(lookup.candidates())
+                .concatMap(route -> Mono.just(route)
+                        .filterWhen(r -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                            return r.getPredicate().apply(exchange);
+                        })
+                        .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+}
@@ -0,0 +1,121 @@
+package com.appfactory.gateway.route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 按路径段组织的前缀树，用于一次遍历找出所有可能匹配的路径模式
+ *
+ * 支持的模式段：字面量、单段通配 *、路径变量 {name}、末尾的多段通配 **。
+ * 其他写法（段内通配、正则变量、中间的 **）由 supports 返回 false，调用方需自行回退到逐个匹配
+ */
+public class PathTrie<T> {
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    public static boolean supports(String pattern) {
+        if (!pattern.startsWith("/")) {
+            return false;
+        }
+        String[] segments = split(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    return false;
+                }
+            } else if (isVariable(segment)) {
+                if (segment.indexOf(':') >= 0 || segment.startsWith("{*")) {
+                    return false;
+                }
+            } else if (!segment.equals("*") && (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0
+                    || segment.indexOf('{') >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String pattern, T value) {
+        Node<T> node = root;
+        for (String segment : split(pattern)) {
+            if (segment.equals("**")) {
+                node.tailValues.add(value);
+                size++;
+                return;
+            }
+            if (segment.equals("*") || isVariable(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node<>();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(segment, s -> new Node<>());
+            }
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * 回调所有匹配 path 的模式对应的值（同一个值可能回调多次）
+     */
+    public void match(String path, Consumer<T> consumer) {
+        match(root, path, 1, consumer);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void match(Node<T> node, String path, int start, Consumer<T> consumer) {
+        // ** 同样匹配零个剩余段，与 PathPattern 一致
+        node.tailValues.forEach(consumer);
+        if (start > path.length()) {
+            node.values.forEach(consumer);
+            return;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        if (end == start) {
+            // 末尾斜杠或连续斜杠：视为路径结束
+            if (end == path.length()) {
+                node.values.forEach(consumer);
+            }
+            return;
+        }
+        String segment = path.substring(start, end);
+        Node<T> literal = node.children.get(segment);
+        if (literal != null) {
+            match(literal, path, end + 1, consumer);
+        }
+        if (node.wildcard != null) {
+            match(node.wildcard, path, end + 1, consumer);
+        }
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static String[] split(String pattern) {
+        String trimmed = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final List<T> values = new ArrayList<>(1);
+        private final List<T> tailValues = new ArrayList<>(1);
+        private Node<T> wildcard;
+    }
+}
@@ -0,0 +1,196 @@
+package com.appfactory.gateway.route;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 编译后的路由索引
+ *
+ * 从路由定义中的 Path 断言构建路径段前缀树，一次查找得到候选路由（保持原有顺序）和路径是否在公开路径中；
+ * 候选路由仍需完整执行全部断言（Method、Header 等），因此匹配结果与逐条匹配一致。
+ * 无法放入前缀树的路由（无 Path 断言、Java DSL 定义或不支持的模式）始终作为候选。
+ * 候选路由只是可能匹配，不参与认证判断：路由级的 auth: public 只看最终选中的路由（见 isPublicRoute）。
+ *
+ * 路由刷新（RefreshRoutesResultEvent）后在后台重建，构建完成后整体替换，查找过程无锁
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteIndex {
+
+    private static final String PATH_PREDICATE = "Path";
+    private static final String AUTH_METADATA_KEY = "auth";
+    private static final String AUTH_PUBLIC = "public";
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final RoutingProperties properties;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * 查找结果：按路由顺序排列的候选路由，以及该路径是否匹配 gateway.routing.public-paths
+     */
+    public record Lookup(List<Route> candidates, boolean publicPath) {
+    }
+
+    /**
+     * 路径是否匹配 gateway.routing.public-paths，供未经过索引匹配的请求使用（索引未构建时逐个匹配）
+     */
+    public boolean isPublic(String path) {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current.lookup(path).publicPath();
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        return properties.getPublicPaths().stream()
+                .anyMatch(pattern -> PathPatternParser.defaultInstance.parse(pattern).matches(container));
+    }
+
+    /**
+     * 路由 metadata 是否声明 auth: public，只能用于最终选中的路由
+     */
+    public static boolean isPublicRoute(Route route) {
+        return AUTH_PUBLIC.equals(String.valueOf(route.getMetadata().get(AUTH_METADATA_KEY)));
+    }
+
+    /**
+     * 索引尚未构建时返回 null，调用方应回退到逐条匹配
+     */
+    public Lookup lookup(String path) {
+        Snapshot current = snapshot.get();
+        return current != null ? current.lookup(path) : null;
+    }
+
+    @EventListener
+    public void onRefresh(RefreshRoutesResultEvent event) {
+        if (event.isSuccess()) {
+            rebuild().subscribe(null, e -> log.error("Failed to rebuild route index", e));
+        }
+    }
+
+    public Mono<Void> rebuild() {
+        return Mono.zip(
+                        routeLocator.getRoutes().collectList(),
+                        routeDefinitionLocator.getRouteDefinitions().collectMap(RouteDefinition::getId))
+                .doOnNext(tuple -> {
+                    Snapshot built = Snapshot.build(tuple.getT1(), tuple.getT2(), properties.getPublicPaths());
+                    snapshot.set(built);
+                    log.info("Route index rebuilt: {} routes, {} indexed patterns, {} unindexed routes",
+                            built.routes.size(), built.trie.size(), built.unindexed.cardinality());
+                })
+                .then();
+    }
+
+    private static final class Snapshot {
+
+        private final List<Route> routes;
+        private final PathTrie<Integer> trie = new PathTrie<>();
+        private final PathTrie<Boolean> publicTrie = new PathTrie<>();
+        private final List<PathPattern> unsupportedPublicPaths = new ArrayList<>();
+        /**
+         * 无法索引的路由序号，每次查找都作为候选
+         */
+        private final BitSet unindexed = new BitSet();
+
+        private Snapshot(List<Route> routes) {
+            this.routes = routes;
+        }
+
+        static Snapshot build(List<Route> routes, Map<String, RouteDefinition> definitions, List<String> publicPaths) {
+            Snapshot snapshot = new Snapshot(List.copyOf(routes));
+            for (int i = 0; i < routes.size(); i++) {
+                Route route = routes.get(i);
+                List<String> patterns = pathPatterns(definitions.get(route.getId()));
+                if (patterns.isEmpty() || !patterns.stream().allMatch(PathTrie::supports)) {
+                    snapshot.unindexed.set(i);
+                    continue;
+                }
+                for (String pattern : patterns) {
+                    snapshot.trie.add(pattern, i);
+                }
+            }
+            for (String pattern : publicPaths) {
+                if (PathTrie.supports(pattern)) {
+                    snapshot.publicTrie.add(pattern, Boolean.TRUE);
+                } else {
+                    snapshot.unsupportedPublicPaths.add(PathPatternParser.defaultInstance.parse(pattern));
+                }
+            }
+            return snapshot;
+        }
+
+        Lookup lookup(String path) {
+            BitSet matched = (BitSet) unindexed.clone();
+            trie.match(path, matched::set);
+            List<Route> candidates;
+            if (matched.isEmpty()) {
+                candidates = Collections.emptyList();
+            } else {
+                candidates = new ArrayList<>(matched.cardinality());
+                for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                    candidates.add(routes.get(i));
+                }
+            }
+            return new Lookup(candidates, isPublicPath(path));
+        }
+
+        private boolean isPublicPath(String path) {
+            boolean[] result = new boolean[1];
+            publicTrie.match(path, value -> result[0] = true);
+            if (result[0] || unsupportedPublicPaths.isEmpty()) {
+                return result[0];
+            }
+            // 前缀树不支持的公开路径逐个完整匹配
+            PathContainer container = PathContainer.parsePath(path);
+            for (PathPattern pattern : unsupportedPublicPaths) {
+                if (pattern.matches(container)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static List<String> pathPatterns(RouteDefinition definition) {
+            if (definition == null) {
+                return List.of();
+            }
+            List<String> patterns = new ArrayList<>();
+            for (PredicateDefinition predicate : definition.getPredicates()) {
+                if (!PATH_PREDICATE.equals(predicate.getName())) {
+                    continue;
+                }
+                Map<String, String> args = new HashMap<>(predicate.getArgs());
+                args.remove("matchTrailingSlash");
+                for (String value : args.values()) {
+                    for (String pattern : value.split(",")) {
+                        if (!pattern.isBlank()) {
+                            patterns.add(pattern.trim());
+                        }
+                    }
+                }
+            }
+            return patterns;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.appfactory.gateway.route;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由索引配置
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.routing")
+public class RoutingProperties {
+
+    /**
+     * 关闭后回退到 Spring Cloud Gateway 默认的逐条路由匹配
+     */
+    private boolean indexEnabled = true;
+
+    /**
+     * 不需要认证的路径模式，路由 metadata 中 auth: public 的路由同样视为公开
+     */
+    private List<String> publicPaths = new ArrayList<>(List.of("/api/v1/auth/**", "/actuator/**"));
+}
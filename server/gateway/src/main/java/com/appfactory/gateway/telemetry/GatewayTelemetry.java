@@ -0,0 +1,122 @@
+package com.appfactory.gateway.telemetry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 网关分阶段耗时与在途请求统计
+ *
+ * 指标：
+ * - gateway.request.phase{route,phase}   各阶段耗时（百分位直方图）
+ * - gateway.requests.inflight{route}     在途请求数
+ * - gateway.requests.queued{route}       等待上游连接的请求数
+ *
+ * 计时器按路由首次出现时注册，之后按阶段下标直接取用，热路径上没有标签构造和装箱。
+ * 每个请求分配一个 RequestTiming（经过限流的请求另有一个限流计时监听器），不复用
+ */
+@Component
+public class GatewayTelemetry {
+
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger queued = new AtomicInteger();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    public GatewayTelemetry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.requests.inflight.total", inFlight, AtomicInteger::get)
+                .description("Requests in the gateway filter chain")
+                .register(meterRegistry);
+        Gauge.builder("gateway.requests.queued.total", queued, AtomicInteger::get)
+                .description("Requests waiting for an upstream connection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 开始计时并放入 exchange 属性；返回的实例作为 doFinally 回调结束计时，之后对它的回调不再记录
+     */
+    public RequestTiming start(ServerWebExchange exchange, String routeId) {
+        RequestTiming timing = new RequestTiming(this, meters(routeId));
+        inFlight.incrementAndGet();
+        exchange.getAttributes().put(RequestTiming.KEY, timing);
+        return timing;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * 当前统计快照（耗时单位毫秒），供 actuator 端点使用
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> routeSnapshots = new LinkedHashMap<>();
+        routes.values().stream()
+                .sorted((a, b) -> a.routeId.compareTo(b.routeId))
+                .forEach(route -> routeSnapshots.put(route.routeId, routeSnapshot(route)));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("queued", queued.get());
+        snapshot.put("routes", routeSnapshots);
+        return snapshot;
+    }
+
+    public Map<String, Object> snapshot(String routeId) {
+        RouteMeters route = routes.get(routeId);
+        return route != null ? routeSnapshot(route) : null;
+    }
+
+    private RouteMeters meters(String routeId) {
+        // 先 get 再 computeIfAbsent，已存在的路由不创建捕获 lambda
+        RouteMeters meters = routes.get(routeId);
+        if (meters == null) {
+            meters = routes.computeIfAbsent(routeId, id -> new RouteMeters(id, meterRegistry));
+        }
+        return meters;
+    }
+
+    private static Map<String, Object> routeSnapshot(RouteMeters route) {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            Timer timer = route.timer(phase);
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            if (histogram.count() == 0) {
+                continue;
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", histogram.count());
+            values.put("mean", round(histogram.mean(TimeUnit.MILLISECONDS)));
+            values.put("max", round(histogram.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                values.put("p" + Math.round(percentile.percentile() * 100),
+                        round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            phases.put(phase.tag(), values);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", route.inFlight.get());
+        snapshot.put("queued", route.queued.get());
+        snapshot.put("phases", phases);
+        return snapshot;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.appfactory.gateway.telemetry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/gatewaytelemetry：整体及各路由的在途数、排队数和分阶段耗时百分位，
+ * 顶层 inFlight / queued 可直接作为扩缩容信号
+ */
+@Component
+@Endpoint(id = "gatewaytelemetry")
+@RequiredArgsConstructor
+public class GatewayTelemetryEndpoint {
+
+    private final GatewayTelemetry telemetry;
+
+    @ReadOperation
+    public Map<String, Object> telemetry() {
+        return telemetry.snapshot();
+    }
+
+    @ReadOperation
+    public Map<String, Object> route(@Selector String routeId) {
+        return telemetry.snapshot(routeId);
+    }
+}
@@ -0,0 +1,42 @@
+package com.appfactory.gateway.telemetry;
+
+/**
+ * 请求处理阶段
+ */
+public enum Phase {
+
+    /**
+     * JwtAuthenticationFilter 验签及吊销检查
+     */
+    AUTH("auth"),
+
+    /**
+     * RequestRateLimiter 的 Redis 限流检查
+     */
+    RATE_LIMIT("rate_limit"),
+
+    /**
+     * 等待上游连接（从连接池获取或新建）
+     */
+    CONNECT("connect"),
+
+    /**
+     * 请求发出到收到上游响应头
+     */
+    UPSTREAM("upstream"),
+
+    /**
+     * 进入网关过滤器链到响应结束
+     */
+    TOTAL("total");
+
+    private final String tag;
+
+    Phase(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
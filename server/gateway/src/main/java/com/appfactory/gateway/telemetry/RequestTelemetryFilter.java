@@ -0,0 +1,44 @@
+package com.appfactory.gateway.telemetry;
+
+import com.appfactory.gateway.filter.WarmupRequestFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 在过滤器链最外层开始计时，RequestTiming 放入 exchange 属性。JwtAuthenticationFilter 按 exchange 记录，
+ * 限流器和上游 HttpClient 回调经 Reactor 上下文中的 exchange（ServerWebExchangeContextFilter）记录
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestTelemetryFilter implements GlobalFilter, Ordered {
+
+    private final GatewayTelemetry telemetry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // WebSocket 连接的生命周期不是请求耗时，由 WebSocketAdmissionFilter 单独统计
+        if ("websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+        // 启动预热的请求不计入路由遥测
+        if (WarmupRequestFilter.isWarmup(exchange)) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RequestTiming timing = telemetry.start(exchange, route != null ? route.getId() : "unknown");
+        return chain.filter(exchange).doFinally(timing);
+    }
+
+    @Override
+    public int getOrder() {
+        // 早于 JwtAuthenticationFilter（-100）
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
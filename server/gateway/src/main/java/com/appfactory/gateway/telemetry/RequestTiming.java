@@ -0,0 +1,162 @@
+package com.appfactory.gateway.telemetry;
+
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.observability.DefaultSignalListener;
+import reactor.core.observability.SignalListener;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * 单个请求的计时状态
+ *
+ * 每个请求一个实例，不复用：请求取消后上游连接或限流的回调仍可能迟到，复用会把它们写进下一个请求。
+ * 实例自身作为 doFinally 回调，不需要额外的闭包；请求结束（含取消）后状态为 DONE，迟到的回调不再记录。
+ * 上游连接回调运行在客户端事件循环线程上，状态切换使用 CAS，保证排队计数只减一次。
+ *
+ * 外部只按 exchange 访问：过滤器直接传入 exchange，上游 HttpClient 和限流器的回调从 Reactor 上下文中取
+ * ServerWebExchangeContextFilter 写入的 exchange
+ */
+public final class RequestTiming implements Consumer<SignalType> {
+
+    /**
+     * exchange 属性中的键
+     */
+    public static final String KEY = RequestTiming.class.getName();
+
+    private static final int DONE = 0;
+    private static final int ACTIVE = 1;
+    private static final int QUEUED = 2;
+    private static final int SENT = 3;
+    private static final int RESPONDED = 4;
+
+    private static final AtomicIntegerFieldUpdater<RequestTiming> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(RequestTiming.class, "state");
+
+    private static final SignalListener<Object> NOOP_LISTENER = new DefaultSignalListener<>() { };
+
+    private final GatewayTelemetry telemetry;
+    private final RouteMeters meters;
+    private final long startNanos;
+    private volatile int state;
+    // 在另一个线程的回调中读取
+    private volatile long queuedNanos;
+    private volatile long sentNanos;
+
+    RequestTiming(GatewayTelemetry telemetry, RouteMeters meters) {
+        this.telemetry = telemetry;
+        this.meters = meters;
+        this.startNanos = System.nanoTime();
+        this.state = ACTIVE;
+        meters.inFlight.incrementAndGet();
+    }
+
+    /**
+     * 记录同步执行的阶段（如验签）
+     */
+    public static void record(ServerWebExchange exchange, Phase phase, long nanos) {
+        RequestTiming timing = exchange.getAttribute(KEY);
+        if (timing != null && timing.state != DONE) {
+            timing.meters.record(phase, nanos);
+        }
+    }
+
+    /**
+     * 即将向上游发起请求，开始等待连接
+     */
+    public static void upstreamStarted(ServerWebExchange exchange) {
+        RequestTiming timing = exchange.getAttribute(KEY);
+        if (timing != null && STATE.compareAndSet(timing, ACTIVE, QUEUED)) {
+            timing.queuedNanos = System.nanoTime();
+            timing.meters.queued.incrementAndGet();
+            timing.telemetry.queued.incrementAndGet();
+        }
+    }
+
+    /**
+     * 已取得连接，请求即将发出（重试时只记录第一次）
+     */
+    public static void connectionAcquired(ContextView context) {
+        RequestTiming timing = from(context);
+        if (timing != null && STATE.compareAndSet(timing, QUEUED, SENT)) {
+            long now = System.nanoTime();
+            timing.sentNanos = now;
+            timing.dequeue();
+            timing.meters.record(Phase.CONNECT, now - timing.queuedNanos);
+        }
+    }
+
+    /**
+     * 收到上游响应头
+     */
+    public static void responseReceived(ContextView context) {
+        RequestTiming timing = from(context);
+        if (timing != null && STATE.compareAndSet(timing, SENT, RESPONDED)) {
+            timing.meters.record(Phase.UPSTREAM, System.nanoTime() - timing.sentNanos);
+        }
+    }
+
+    /**
+     * 限流检查的计时监听器，供 Mono.tap 使用；没有进行中的计时时返回不记录的共享监听器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SignalListener<T> rateLimitListener(ContextView context) {
+        RequestTiming timing = from(context);
+        if (timing == null || timing.state == DONE) {
+            return (SignalListener<T>) NOOP_LISTENER;
+        }
+        return (SignalListener<T>) timing.new RateLimitTimer();
+    }
+
+    /**
+     * 请求结束（完成、出错或取消）：记录 total，之后的回调不再记录
+     */
+    @Override
+    public void accept(SignalType signal) {
+        int previous = STATE.getAndSet(this, DONE);
+        if (previous == DONE) {
+            return;
+        }
+        if (previous == QUEUED) {
+            // 未取得连接即结束（超时、取消），不计入 connect 阶段
+            dequeue();
+        }
+        meters.record(Phase.TOTAL, System.nanoTime() - startNanos);
+        meters.inFlight.decrementAndGet();
+        telemetry.inFlight.decrementAndGet();
+    }
+
+    private void dequeue() {
+        meters.queued.decrementAndGet();
+        telemetry.queued.decrementAndGet();
+    }
+
+    private static RequestTiming from(ContextView context) {
+        ServerWebExchange exchange =
+                context.getOrDefault(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE, null);
+        return exchange != null ? exchange.getAttribute(KEY) : null;
+    }
+
+    /**
+     * 一次限流检查的计时，每次订阅一个实例
+     */
+    private final class RateLimitTimer extends DefaultSignalListener<Object> {
+
+        private long subscribedNanos;
+
+        @Override
+        public void doOnSubscription() {
+            subscribedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void doOnNext(Object value) {
+            if (state != DONE) {
+                meters.record(Phase.RATE_LIMIT, System.nanoTime() - subscribedNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.appfactory.gateway.telemetry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个路由的计时器和在途计数，首次出现该路由时创建，之后按阶段下标直接取用
+ */
+final class RouteMeters {
+
+    private static final Phase[] PHASES = Phase.values();
+
+    final String routeId;
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger queued = new AtomicInteger();
+    private final Timer[] timers = new Timer[PHASES.length];
+
+    RouteMeters(String routeId, MeterRegistry registry) {
+        this.routeId = routeId;
+        for (Phase phase : PHASES) {
+            timers[phase.ordinal()] = Timer.builder("gateway.request.phase")
+                    .description("Gateway request time by route and phase")
+                    .tag("route", routeId)
+                    .tag("phase", phase.tag())
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+        }
+        Gauge.builder("gateway.requests.inflight", inFlight, AtomicInteger::get)
+                .tag("route", routeId)
+                .register(registry);
+        Gauge.builder("gateway.requests.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for an upstream connection")
+                .tag("route", routeId)
+                .register(registry);
+    }
+
+    void record(Phase phase, long nanos) {
+        timers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    Timer timer(Phase phase) {
+        return timers[phase.ordinal()];
+    }
+}
@@ -0,0 +1,21 @@
+package com.appfactory.gateway.telemetry;
+
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * 上游 HttpClient 回调：请求即将发出（已取得连接）和收到响应头。
+ * 按订阅时 Reactor 上下文中的 exchange 找到 RequestTiming（ServerWebExchangeContextFilter 写入）；
+ * 回调不捕获变量，不为请求分配对象
+ */
+@Component
+public class TelemetryHttpClientCustomizer implements HttpClientCustomizer {
+
+    @Override
+    public HttpClient customize(HttpClient httpClient) {
+        return httpClient
+                .doOnRequest((request, connection) -> RequestTiming.connectionAcquired(request.currentContextView()))
+                .doOnResponse((response, connection) -> RequestTiming.responseReceived(response.currentContextView()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.appfactory.gateway.telemetry;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 紧挨 NettyRoutingFilter 之前执行，标记开始等待上游连接；
+ * 取得连接和收到响应头由 TelemetryHttpClientCustomizer 的回调标记
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTiming.upstreamStarted(exchange);
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // 位于负载均衡（10150）之后，NettyRoutingFilter / WebsocketRoutingFilter 之前
+        return NettyRoutingFilter.ORDER - 2;
+    }
+}
@@ -0,0 +1,60 @@
+package com.appfactory.gateway.tls;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录单个连接的 TLS 握手耗时，握手结束后从 pipeline 中移除
+ *
+ * 会话是否恢复通过会话创建时间判断：恢复的会话创建时间早于本次握手开始。
+ * JDK provider 的 TLS 1.3 恢复会生成新会话对象，此时统计为 resumed=false
+ */
+class HandshakeMetricsHandler extends ChannelInboundHandlerAdapter {
+
+    static final String NAME = "appfactory.tlsHandshakeMetrics";
+
+    private final MeterRegistry meterRegistry;
+    private final SslHandler sslHandler;
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+
+    HandshakeMetricsHandler(MeterRegistry meterRegistry, SslHandler sslHandler) {
+        this.meterRegistry = meterRegistry;
+        this.sslHandler = sslHandler;
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof SslHandshakeCompletionEvent completion) {
+            long elapsed = System.nanoTime() - startNanos;
+            if (completion.isSuccess()) {
+                SSLSession session = sslHandler.engine().getSession();
+                String alpn = sslHandler.applicationProtocol();
+                Timer.builder("gateway.tls.handshake")
+                        .description("TLS handshake time")
+                        .tag("protocol", session.getProtocol())
+                        .tag("resumed", String.valueOf(session.getCreationTime() < startMillis))
+                        .tag("alpn", alpn != null ? alpn : "none")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                Counter.builder("gateway.tls.handshake.failures")
+                        .description("Failed TLS handshakes")
+                        .tag("cause", completion.cause().getClass().getSimpleName())
+                        .register(meterRegistry)
+                        .increment();
+            }
+            ctx.pipeline().remove(this);
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+}
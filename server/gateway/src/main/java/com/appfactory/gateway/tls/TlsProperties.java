@@ -0,0 +1,36 @@
+package com.appfactory.gateway.tls;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * TLS 会话配置，证书本身通过 SSL bundle（server.ssl.bundle）配置，见 application-tls.yml
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.tls")
+public class TlsProperties {
+
+    /**
+     * 服务端会话缓存条数
+     */
+    private int sessionCacheSize = 20_480;
+
+    /**
+     * 会话（含 session ticket）有效期
+     */
+    private Duration sessionTimeout = Duration.ofHours(1);
+
+    /**
+     * Session ticket 密钥文件，每行一个 Base64 编码的 48 字节密钥（16 字节名称 + 16 字节 HMAC + 16 字节 AES），
+     * 第一行用于签发，其余行只用于解密（轮换期间）。多实例共用同一文件时客户端可以跨实例恢复会话；
+     * 为空时由 OpenSSL 为每个实例随机生成。仅 OpenSSL provider 生效
+     */
+    private String sessionTicketKeysFile;
+
+    /**
+     * 检查 ticket 密钥文件变化的间隔
+     */
+    private Duration ticketKeysReloadInterval = Duration.ofMinutes(1);
+}
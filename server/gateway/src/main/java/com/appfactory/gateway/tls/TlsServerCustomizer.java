@@ -0,0 +1,56 @@
+package com.appfactory.gateway.tls;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * TLS 终结的连接级扩展
+ *
+ * 证书、协议和 ALPN 由 Spring Boot 按 server.ssl.bundle / server.http2.enabled 配置
+ * （Http2SslContextSpec 在 OpenSSL 支持 ALPN 时自动选用 OpenSSL provider），证书文件变化后自动重载。
+ * 这里在每个连接建立时：
+ * - 配置所属的会话上下文（缓存、有效期、ticket 密钥）
+ * - 挂上握手计时处理器
+ */
+@Slf4j
+public class TlsServerCustomizer implements NettyServerCustomizer {
+
+    private final MeterRegistry meterRegistry;
+    private final TlsSessionConfigurer sessionConfigurer;
+
+    public TlsServerCustomizer(TlsProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sessionConfigurer = new TlsSessionConfigurer(properties);
+        if (OpenSsl.isAvailable()) {
+            log.info("TLS provider: OpenSSL ({}), ALPN supported: {}",
+                    OpenSsl.versionString(), SslProvider.isAlpnSupported(SslProvider.OPENSSL));
+        } else {
+            log.warn("TLS provider: JDK, OpenSSL unavailable: {}", String.valueOf(OpenSsl.unavailabilityCause()));
+        }
+    }
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        return httpServer.doOnChannelInit((observer, channel, remoteAddress) -> {
+            SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
+            if (sslHandler == null) {
+                return;
+            }
+            sessionConfigurer.configure(sslHandler.engine().getSession().getSessionContext());
+            channel.pipeline().addAfter(NettyPipeline.SslHandler, HandshakeMetricsHandler.NAME,
+                    new HandshakeMetricsHandler(meterRegistry, sslHandler));
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        sessionConfigurer.close();
+    }
+}
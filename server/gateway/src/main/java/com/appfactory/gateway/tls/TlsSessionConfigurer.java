@@ -0,0 +1,125 @@
+package com.appfactory.gateway.tls;
+
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import javax.net.ssl.SSLSessionContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 为服务端 SSLSessionContext 设置缓存大小、有效期和 session ticket 密钥
+ *
+ * SslContext 由 Spring Boot 根据 SSL bundle 创建，证书热更新时会重建，
+ * 因此在每个连接上检查所属的会话上下文，首次遇到时配置一次。
+ * ticket 密钥文件变化后重新应用到所有已知的会话上下文
+ */
+@Slf4j
+class TlsSessionConfigurer {
+
+    private static final int TICKET_KEY_LENGTH = 48;
+
+    private final TlsProperties properties;
+    private final Set<SSLSessionContext> configured = Collections.newSetFromMap(
+            Collections.synchronizedMap(new WeakHashMap<>()));
+    private volatile SSLSessionContext lastConfigured;
+    private volatile OpenSslSessionTicketKey[] ticketKeys;
+    private volatile long ticketKeysModified;
+    private Disposable reloader;
+
+    TlsSessionConfigurer(TlsProperties properties) {
+        this.properties = properties;
+        if (hasTicketKeysFile()) {
+            reloadTicketKeys();
+            reloader = Flux.interval(properties.getTicketKeysReloadInterval())
+                    .subscribe(tick -> reloadTicketKeys());
+        }
+    }
+
+    void configure(SSLSessionContext context) {
+        // 绝大多数连接命中同一个上下文，无需进入同步集合
+        if (context == null || context == lastConfigured) {
+            return;
+        }
+        if (configured.add(context)) {
+            context.setSessionCacheSize(properties.getSessionCacheSize());
+            context.setSessionTimeout((int) properties.getSessionTimeout().toSeconds());
+            applyTicketKeys(context);
+            log.info("TLS session context configured: {}", context.getClass().getSimpleName());
+        }
+        lastConfigured = context;
+    }
+
+    void close() {
+        if (reloader != null) {
+            reloader.dispose();
+        }
+    }
+
+    private void applyTicketKeys(SSLSessionContext context) {
+        OpenSslSessionTicketKey[] keys = ticketKeys;
+        if (keys != null && context instanceof OpenSslSessionContext openSslContext) {
+            openSslContext.setTicketKeys(keys);
+        }
+    }
+
+    private boolean hasTicketKeysFile() {
+        return properties.getSessionTicketKeysFile() != null && !properties.getSessionTicketKeysFile().isBlank();
+    }
+
+    private void reloadTicketKeys() {
+        Path file = Path.of(properties.getSessionTicketKeysFile());
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == ticketKeysModified) {
+                return;
+            }
+            ticketKeys = parseTicketKeys(Files.readAllLines(file, StandardCharsets.US_ASCII));
+            ticketKeysModified = modified;
+            List<SSLSessionContext> contexts;
+            synchronized (configured) {
+                contexts = new ArrayList<>(configured);
+            }
+            contexts.forEach(this::applyTicketKeys);
+            log.info("TLS session ticket keys loaded: {} keys from {}", ticketKeys.length, file);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to load TLS session ticket keys from {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static OpenSslSessionTicketKey[] parseTicketKeys(List<String> lines) {
+        List<OpenSslSessionTicketKey> keys = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            byte[] raw = Base64.getDecoder().decode(trimmed);
+            if (raw.length != TICKET_KEY_LENGTH) {
+                throw new IllegalArgumentException("ticket key must be " + TICKET_KEY_LENGTH + " bytes, got " + raw.length);
+            }
+            byte[] name = new byte[16];
+            byte[] hmacKey = new byte[16];
+            byte[] aesKey = new byte[16];
+            System.arraycopy(raw, 0, name, 0, 16);
+            System.arraycopy(raw, 16, hmacKey, 0, 16);
+            System.arraycopy(raw, 32, aesKey, 0, 16);
+            keys.add(new OpenSslSessionTicketKey(name, hmacKey, aesKey));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("no ticket keys found");
+        }
+        return keys.toArray(new OpenSslSessionTicketKey[0]);
+    }
+}
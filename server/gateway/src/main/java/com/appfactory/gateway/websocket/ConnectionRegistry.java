@@ -0,0 +1,134 @@
+package com.appfactory.gateway.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket 连接计数
+ *
+ * 本实例的计数保存在内存中，准入判断不涉及网络调用。
+ * 每个实例定期把自己的计数快照写入 Redis（ws:conn:instance:{id}），
+ * 并汇总其他存活实例的快照作为远端计数，准入时按 本地 + 远端 判断上限。
+ *
+ * 计数 key 形如 u:{userId}、i:{ip}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConnectionRegistry {
+
+    private static final String INSTANCES_KEY = "ws:conn:instances";
+    private static final String INSTANCE_KEY_PREFIX = "ws:conn:instance:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final WebSocketAdmissionProperties properties;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Integer> localCounts = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> remoteCounts = Map.of();
+    private Disposable reconciler;
+
+    @PostConstruct
+    public void start() {
+        Duration interval = properties.getReconcileInterval();
+        reconciler = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(e -> {
+                            log.warn("WebSocket connection reconcile failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconciler != null) {
+            reconciler.dispose();
+        }
+        redisTemplate.delete(INSTANCE_KEY_PREFIX + instanceId)
+                .then(redisTemplate.opsForZSet().remove(INSTANCES_KEY, instanceId))
+                .block(Duration.ofSeconds(2));
+    }
+
+    /**
+     * 在上限内占用一个名额，成功返回 true；limit <= 0 表示不限制
+     */
+    public boolean tryAcquire(String key, int limit) {
+        if (limit <= 0) {
+            localCounts.merge(key, 1, Integer::sum);
+            return true;
+        }
+        int remote = remoteCounts.getOrDefault(key, 0);
+        boolean[] acquired = new boolean[1];
+        localCounts.compute(key, (k, current) -> {
+            int count = current == null ? 0 : current;
+            if (count + remote >= limit) {
+                return current;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        return acquired[0];
+    }
+
+    public void release(String key) {
+        // 归零时移除，避免已断开用户的 key 长期驻留
+        localCounts.computeIfPresent(key, (k, current) -> current <= 1 ? null : current - 1);
+    }
+
+    public int localCount(String key) {
+        return localCounts.getOrDefault(key, 0);
+    }
+
+    private Mono<Void> reconcile() {
+        long now = System.currentTimeMillis();
+        Duration ttl = properties.getReconcileInterval().multipliedBy(3);
+        String instanceKey = INSTANCE_KEY_PREFIX + instanceId;
+        String stagingKey = instanceKey + ":staging";
+        Map<String, String> snapshot = new HashMap<>();
+        localCounts.forEach((key, count) -> snapshot.put(key, Integer.toString(count)));
+
+        // 先写临时 key 再 RENAME，读取方不会看到写了一半的快照
+        Mono<Void> publish = snapshot.isEmpty()
+                ? redisTemplate.delete(instanceKey).then()
+                : redisTemplate.opsForHash().putAll(stagingKey, snapshot)
+                        .then(redisTemplate.rename(stagingKey, instanceKey))
+                        .then(redisTemplate.expire(instanceKey, ttl))
+                        .then();
+
+        return publish
+                .then(redisTemplate.opsForZSet().add(INSTANCES_KEY, instanceId, now))
+                .then(redisTemplate.opsForZSet().removeRangeByScore(INSTANCES_KEY,
+                        Range.closed(0d, (double) (now - ttl.toMillis()))))
+                .thenMany(redisTemplate.opsForZSet().range(INSTANCES_KEY, Range.unbounded()))
+                .filter(id -> !id.equals(instanceId))
+                .concatMap(id -> redisTemplate.<String, String>opsForHash().entries(INSTANCE_KEY_PREFIX + id))
+                .collect(HashMap<String, Integer>::new, (totals, entry) ->
+                        totals.merge(entry.getKey(), parseCount(entry.getValue()), Integer::sum))
+                .doOnNext(totals -> remoteCounts = totals)
+                .then();
+    }
+
+    private static int parseCount(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.appfactory.gateway.websocket;
+
+import com.appfactory.gateway.filter.ClientIpHeaderFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket 升级准入过滤器
+ *
+ * 在 JwtAuthenticationFilter 之后执行，只处理 Upgrade: websocket 请求：
+ * - 本实例接受速率超限：503 + 随机 Retry-After，打散重连风暴
+ * - 用户 / IP 并发连接超限：429
+ * 准入后占用的名额在连接关闭时释放。
+ *
+ * 指标：
+ * - gateway.websocket.connections{route}   本实例当前打开的连接数
+ * - gateway.websocket.rejections{reason}   拒绝次数
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketAdmissionFilter implements GlobalFilter, Ordered {
+
+    private final WebSocketAdmissionProperties properties;
+    private final ConnectionRegistry connectionRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> openConnections = new ConcurrentHashMap<>();
+    private final Object bucketLock = new Object();
+    private double tokens = -1;
+    private long lastRefillNanos;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || !"websocket".equalsIgnoreCase(request.getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+
+        if (!tryAcceptToken()) {
+            meterRegistry.counter("gateway.websocket.rejections", "reason", "accept_rate").increment();
+            int retryAfter = ThreadLocalRandom.current().nextInt(
+                    properties.getRetryAfterMinSeconds(), properties.getRetryAfterMaxSeconds() + 1);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return onError(exchange, "Too many connection attempts, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        // 由 JwtAuthenticationFilter 写入
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        // 由 ClientIpHeaderFilter 按受信代理层数解析，网关在代理后面时不会把所有连接算到代理地址上
+        String ip = request.getHeaders().getFirst(ClientIpHeaderFilter.CLIENT_IP_HEADER);
+
+        List<String> acquired = new ArrayList<>(2);
+        String rejectedBy = null;
+        if (!acquire("u:", userId, properties.getMaxPerUser(), acquired)) {
+            rejectedBy = "user";
+        } else if (!acquire("i:", ip, properties.getMaxPerIp(), acquired)) {
+            rejectedBy = "ip";
+        }
+        if (rejectedBy != null) {
+            acquired.forEach(connectionRegistry::release);
+            meterRegistry.counter("gateway.websocket.rejections", "reason", rejectedBy).increment();
+            log.debug("WebSocket connection rejected: reason={}, userId={}, ip={}", rejectedBy, userId, ip);
+            return onError(exchange, "Too many concurrent connections", HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        AtomicInteger routeGauge = routeGauge(exchange);
+        routeGauge.incrementAndGet();
+        // 升级成功后 chain.filter 的 Mono 在连接关闭时才结束
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    routeGauge.decrementAndGet();
+                    acquired.forEach(connectionRegistry::release);
+                });
+    }
+
+    /**
+     * 缺少标识（如未登录的请求没有 userId）时不限制该维度
+     */
+    private boolean acquire(String prefix, String id, int limit, List<String> acquired) {
+        if (id == null || id.isEmpty()) {
+            return true;
+        }
+        String key = prefix + id;
+        if (!connectionRegistry.tryAcquire(key, limit)) {
+            return false;
+        }
+        acquired.add(key);
+        return true;
+    }
+
+    private boolean tryAcceptToken() {
+        synchronized (bucketLock) {
+            long now = System.nanoTime();
+            if (tokens < 0) {
+                tokens = properties.getAcceptBurst();
+            } else {
+                double refill = (now - lastRefillNanos) / 1_000_000_000.0 * properties.getAcceptRatePerSecond();
+                tokens = Math.min(properties.getAcceptBurst(), tokens + refill);
+            }
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    private AtomicInteger routeGauge(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        return openConnections.computeIfAbsent(routeId, id -> {
+            AtomicInteger gauge = new AtomicInteger();
+            Gauge.builder("gateway.websocket.connections", gauge, AtomicInteger::get)
+                    .tag("route", id)
+                    .register(meterRegistry);
+            return gauge;
+        });
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String errorBody = String.format(
+                "{\"code\":%d,\"message\":\"%s\",\"data\":null}",
+                status.value(),
+                message
+        );
+
+        return response.writeWith(
+                Mono.just(response.bufferFactory().wrap(errorBody.getBytes(StandardCharsets.UTF_8)))
+        );
+    }
+
+    @Override
+    public int getOrder() {
+        // JwtAuthenticationFilter (-100) 之后
+        return -90;
+    }
+}
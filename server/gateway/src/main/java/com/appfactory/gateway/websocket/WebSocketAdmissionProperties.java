@@ -0,0 +1,49 @@
+package com.appfactory.gateway.websocket;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * WebSocket 升级准入配置
+ *
+ * 并发上限按集群计算：本实例计数精确，其他实例的计数通过 Redis 定期对账，允许短时间内略微超出
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.websocket.admission")
+public class WebSocketAdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 每个用户的并发连接上限
+     */
+    private int maxPerUser = 5;
+
+    /**
+     * 每个客户端 IP 的并发连接上限，IP 取网关写入的 X-Client-IP（见 gateway.client-ip.trusted-hops）
+     */
+    private int maxPerIp = 100;
+
+    /**
+     * 本实例每秒接受的升级请求数，超出返回 503
+     */
+    private int acceptRatePerSecond = 200;
+
+    /**
+     * 接受速率的突发容量
+     */
+    private int acceptBurst = 400;
+
+    /**
+     * 503 响应 Retry-After 的随机区间（秒），打散客户端重连
+     */
+    private int retryAfterMinSeconds = 1;
+    private int retryAfterMaxSeconds = 10;
+
+    /**
+     * 与 Redis 对账的间隔，实例快照的过期时间为其 3 倍
+     */
+    private Duration reconcileInterval = Duration.ofSeconds(5);
+}
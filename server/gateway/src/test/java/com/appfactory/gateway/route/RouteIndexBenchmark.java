@@ -0,0 +1,106 @@
+package com.appfactory.gateway.route;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由匹配基准（JMH）
+ *
+ *   mvn -pl gateway test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main RouteIndexBenchmark"
+ *
+ * 生成 N 条 Path 路由（前缀路由与带路径变量的路由各半），每次操作对一个请求路径分别执行
+ * 逐条 PathPattern 匹配（默认 RoutePredicateHandlerMapping 的做法，命中第一条即停止）和 PathTrie 查找。
+ * 只比较路径断言部分，两者之后执行的其他断言开销相同
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RouteIndexBenchmark {
+
+    private static final int REQUEST_COUNT = 10_000;
+
+    @Param({"10", "100", "500", "1000"})
+    private int routes;
+
+    private List<PathPattern> linear;
+    private PathTrie<Integer> trie;
+    private String[] paths;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        linear = new ArrayList<>(routes);
+        trie = new PathTrie<>();
+        for (int i = 0; i < routes; i++) {
+            String pattern = i % 2 == 0
+                    ? "/api/v1/service-" + i + "/**"
+                    : "/api/v2/service-" + i + "/items/{id}";
+            linear.add(PathPatternParser.defaultInstance.parse(pattern));
+            trie.add(pattern, i);
+        }
+        paths = requestPaths(routes, new Random(42));
+    }
+
+    @Benchmark
+    public int linear() {
+        PathContainer container = PathContainer.parsePath(nextPath());
+        for (int i = 0; i < linear.size(); i++) {
+            if (linear.get(i).matches(container)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int trie() {
+        int[] first = {Integer.MAX_VALUE};
+        trie.match(nextPath(), i -> first[0] = Math.min(first[0], i));
+        return first[0];
+    }
+
+    private String nextPath() {
+        String path = paths[next];
+        next = next + 1 == paths.length ? 0 : next + 1;
+        return path;
+    }
+
+    /**
+     * 命中路由均匀分布，另有 10% 的请求不匹配任何路由
+     */
+    private static String[] requestPaths(int routeCount, Random random) {
+        String[] paths = new String[REQUEST_COUNT];
+        for (int n = 0; n < REQUEST_COUNT; n++) {
+            int i = random.nextInt(routeCount);
+            if (n % 10 == 0) {
+                paths[n] = "/api/v3/unknown-" + i + "/items";
+            } else if (i % 2 == 0) {
+                paths[n] = "/api/v1/service-" + i + "/users/" + n;
+            } else {
+                paths[n] = "/api/v2/service-" + i + "/items/" + n;
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,76 @@
+package com.appfactory.gateway.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteIndexTest {
+
+    private static final Route USERS = Route.async()
+            .id("users")
+            .uri(URI.create("http://user-service"))
+            .predicate(exchange -> true)
+            .build();
+
+    /**
+     * 没有 Path 断言，不进入前缀树，每次查找都是候选
+     */
+    private static final Route PUBLIC_CATCH_ALL = Route.async()
+            .id("public-catch-all")
+            .uri(URI.create("http://docs-service"))
+            .predicate(exchange -> true)
+            .metadata("auth", "public")
+            .build();
+
+    @Test
+    void unindexedPublicRouteDoesNotMakeOtherPathsPublic() {
+        RouteIndex index = index(new RoutingProperties(), USERS, PUBLIC_CATCH_ALL);
+
+        RouteIndex.Lookup lookup = index.lookup("/api/v1/users/me");
+
+        assertThat(lookup.candidates()).extracting(Route::getId).containsExactly("users", "public-catch-all");
+        assertThat(lookup.publicPath()).isFalse();
+        assertThat(index.isPublic("/api/v1/users/me")).isFalse();
+    }
+
+    @Test
+    void routeMetadataOnlyAppliesToTheRouteItself() {
+        assertThat(RouteIndex.isPublicRoute(PUBLIC_CATCH_ALL)).isTrue();
+        assertThat(RouteIndex.isPublicRoute(USERS)).isFalse();
+    }
+
+    @Test
+    void configuredPublicPathsMatch() {
+        RoutingProperties properties = new RoutingProperties();
+        properties.getPublicPaths().add("/static/*.js");
+        RouteIndex index = index(properties, USERS, PUBLIC_CATCH_ALL);
+
+        assertThat(index.lookup("/api/v1/auth/login").publicPath()).isTrue();
+        assertThat(index.lookup("/static/app.js").publicPath()).isTrue();
+        assertThat(index.lookup("/static/app.css").publicPath()).isFalse();
+    }
+
+    private static RouteIndex index(RoutingProperties properties, Route... routes) {
+        RouteIndex index = new RouteIndex(
+                () -> Flux.fromArray(routes),
+                () -> Flux.just(definition("users", "/api/v1/users/**")),
+                properties);
+        index.rebuild().block();
+        return index;
+    }
+
+    private static RouteDefinition definition(String id, String path) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setUri(URI.create("http://" + id));
+        definition.setPredicates(List.of(new PredicateDefinition("Path=" + path)));
+        return definition;
+    }
+}
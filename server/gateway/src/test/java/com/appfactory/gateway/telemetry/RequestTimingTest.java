@@ -0,0 +1,176 @@
+package com.appfactory.gateway.telemetry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.observability.SignalListener;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingTest {
+
+    private static final String ROUTE = "users";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GatewayTelemetry telemetry = new GatewayTelemetry(registry);
+
+    @Test
+    void recordsEachPhaseOnce() {
+        ServerWebExchange exchange = exchange();
+        Context context = context(exchange);
+        RequestTiming timing = telemetry.start(exchange, ROUTE);
+
+        RequestTiming.record(exchange, Phase.AUTH, 1_000);
+        RequestTiming.upstreamStarted(exchange);
+        assertThat(telemetry.queued()).isEqualTo(1);
+        RequestTiming.connectionAcquired(context);
+        // 重试时再次取得连接、收到响应头
+        RequestTiming.connectionAcquired(context);
+        RequestTiming.responseReceived(context);
+        RequestTiming.responseReceived(context);
+        timing.accept(SignalType.ON_COMPLETE);
+        timing.accept(SignalType.CANCEL);
+
+        assertThat(count(Phase.AUTH)).isEqualTo(1);
+        assertThat(count(Phase.CONNECT)).isEqualTo(1);
+        assertThat(count(Phase.UPSTREAM)).isEqualTo(1);
+        assertThat(count(Phase.TOTAL)).isEqualTo(1);
+        assertThat(telemetry.queued()).isZero();
+        assertThat(telemetry.inFlight()).isZero();
+    }
+
+    @Test
+    void lateUpstreamCallbacksAfterCancelAreIgnored() {
+        ServerWebExchange exchange = exchange();
+        Context context = context(exchange);
+        RequestTiming timing = telemetry.start(exchange, ROUTE);
+        RequestTiming.upstreamStarted(exchange);
+
+        timing.accept(SignalType.CANCEL);
+        RequestTiming.connectionAcquired(context);
+        RequestTiming.responseReceived(context);
+        RequestTiming.record(exchange, Phase.AUTH, 1_000);
+
+        assertThat(count(Phase.CONNECT)).isZero();
+        assertThat(count(Phase.UPSTREAM)).isZero();
+        assertThat(count(Phase.AUTH)).isZero();
+        assertThat(count(Phase.TOTAL)).isEqualTo(1);
+        assertThat(telemetry.queued()).isZero();
+        assertThat(telemetry.inFlight()).isZero();
+    }
+
+    @Test
+    void lateCallbacksDoNotReachTheNextRequest() {
+        ServerWebExchange first = exchange();
+        Context firstContext = context(first);
+        RequestTiming firstTiming = telemetry.start(first, ROUTE);
+        RequestTiming.upstreamStarted(first);
+        firstTiming.accept(SignalType.CANCEL);
+
+        ServerWebExchange second = exchange();
+        telemetry.start(second, ROUTE);
+        RequestTiming.connectionAcquired(firstContext);
+        RequestTiming.responseReceived(firstContext);
+
+        assertThat(count(Phase.CONNECT)).isZero();
+        assertThat(count(Phase.UPSTREAM)).isZero();
+        assertThat(telemetry.inFlight()).isEqualTo(1);
+        assertThat(telemetry.queued()).isZero();
+    }
+
+    @Test
+    void overlappingRateLimitListenersKeepTheirOwnStart() throws Throwable {
+        ServerWebExchange first = exchange();
+        RequestTiming firstTiming = telemetry.start(first, ROUTE);
+        SignalListener<Object> late = RequestTiming.rateLimitListener(context(first));
+        late.doOnSubscription();
+        firstTiming.accept(SignalType.CANCEL);
+
+        ServerWebExchange second = exchange();
+        telemetry.start(second, ROUTE);
+        SignalListener<Object> current = RequestTiming.rateLimitListener(context(second));
+        current.doOnSubscription();
+        late.doOnNext("allowed");
+        current.doOnNext("allowed");
+
+        assertThat(current).isNotSameAs(late);
+        assertThat(count(Phase.RATE_LIMIT)).isEqualTo(1);
+    }
+
+    @Test
+    void rateLimitListenerWithoutTimingRecordsNothing() throws Throwable {
+        SignalListener<Object> listener = RequestTiming.rateLimitListener(Context.empty());
+        listener.doOnSubscription();
+        listener.doOnNext("allowed");
+
+        assertThat(registry.find("gateway.request.phase").timers()).isEmpty();
+    }
+
+    @Test
+    void concurrentCancelAndConnectLeaveCountersBalanced() throws Exception {
+        int requests = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < requests; i++) {
+                ServerWebExchange exchange = exchange();
+                Context context = context(exchange);
+                RequestTiming timing = telemetry.start(exchange, ROUTE);
+                RequestTiming.upstreamStarted(exchange);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>(2);
+                futures.add(executor.submit(() -> {
+                    go.await();
+                    timing.accept(SignalType.CANCEL);
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    go.await();
+                    RequestTiming.connectionAcquired(context);
+                    RequestTiming.responseReceived(context);
+                    return null;
+                }));
+                go.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(telemetry.queued()).isZero();
+        assertThat(telemetry.inFlight()).isZero();
+        assertThat(count(Phase.TOTAL)).isEqualTo(requests);
+        // 连接回调只在取消之前生效，收到响应头的次数不会超过取得连接的次数
+        assertThat(count(Phase.CONNECT)).isLessThanOrEqualTo(requests);
+        assertThat(count(Phase.UPSTREAM)).isLessThanOrEqualTo(count(Phase.CONNECT));
+    }
+
+    private long count(Phase phase) {
+        return registry.get("gateway.request.phase")
+                .tag("route", ROUTE)
+                .tag("phase", phase.tag())
+                .timer()
+                .count();
+    }
+
+    private static ServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/users/me"));
+    }
+
+    private static Context context(ServerWebExchange exchange) {
+        return Context.of(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE, exchange);
+    }
+}
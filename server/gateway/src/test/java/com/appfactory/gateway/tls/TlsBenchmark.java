@@ -0,0 +1,230 @@
+package com.appfactory.gateway.tls;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TLS provider 基准：JDK 与 OpenSSL（netty-tcnative-boringssl-static），JMH
+ *
+ * 先用 scripts/gen-dev-cert.sh 生成本地证书，再在 gateway 目录下运行（证书路径可用 -Dtls.certificate / -Dtls.private-key 指定）：
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main TlsBenchmark"
+ *
+ * 在本机回环上分别测量：
+ * - fullHandshake：每次新建客户端上下文，不复用会话
+ * - resumedHandshake：同一客户端上下文按 host:port 复用会话（TLS 1.3 为 session ticket）
+ * - transfer：单连接发送 TRANSFER_BYTES（16 MiB）并等服务端收齐，ops/s × 16 即 MiB/s
+ * OpenSSL 不可用时 provider=OPENSSL 的组合在 setUp 失败，可用 -p provider=JDK 只测 JDK
+ */
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TlsBenchmark {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final long TRANSFER_BYTES = 16L * 1024 * 1024;
+    private static final String[] PROTOCOLS = {"TLSv1.3"};
+
+    @Param({"JDK", "OPENSSL"})
+    private SslProvider provider;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private EventLoopGroup clientGroup;
+    private final AtomicLong received = new AtomicLong();
+    private int port;
+    private SslContext resumingContext;
+    private Channel transferChannel;
+    private ByteBuf chunk;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (provider == SslProvider.OPENSSL && !OpenSsl.isAvailable()) {
+            throw new IllegalStateException("OpenSSL unavailable", OpenSsl.unavailabilityCause());
+        }
+        SslContext serverContext = SslContextBuilder
+                .forServer(new File(System.getProperty("tls.certificate", "certs/gateway.crt")),
+                        new File(System.getProperty("tls.private-key", "certs/gateway.key")))
+                .sslProvider(provider)
+                .protocols(PROTOCOLS)
+                .build();
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup(2);
+        clientGroup = new NioEventLoopGroup(1);
+        Channel server = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(serverContext.newHandler(ch.alloc()), new ServerHandler(received));
+                    }
+                })
+                .bind("127.0.0.1", 0).sync().channel();
+        port = ((InetSocketAddress) server.localAddress()).getPort();
+
+        // 先建立一次连接获得可恢复的会话
+        resumingContext = clientContext();
+        connect(resumingContext, true).close().sync();
+        transferChannel = connect(clientContext(), false);
+        chunk = Unpooled.unreleasableBuffer(Unpooled.directBuffer(CHUNK_SIZE).writeZero(CHUNK_SIZE));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        transferChannel.close().sync();
+        clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        bossGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        workerGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fullHandshake() throws Exception {
+        connect(clientContext(), false).close().sync();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void resumedHandshake() throws Exception {
+        connect(resumingContext, true).close().sync();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void transfer() {
+        long target = received.get() + TRANSFER_BYTES;
+        for (long sent = 0; sent < TRANSFER_BYTES; sent += CHUNK_SIZE) {
+            // 按可写性背压，避免客户端无限堆积待写数据
+            if (!transferChannel.isWritable()) {
+                transferChannel.flush();
+                while (!transferChannel.isWritable()) {
+                    Thread.onSpinWait();
+                }
+            }
+            transferChannel.write(chunk.duplicate());
+        }
+        transferChannel.flush();
+        while (received.get() < target) {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    /**
+     * 返回握手完成（收到服务端就绪字节）后的连接
+     */
+    private Channel connect(SslContext clientContext, boolean resume) throws Exception {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        Channel channel = new Bootstrap()
+                .group(clientGroup)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        // 指定 peer host/port 时客户端上下文按其缓存会话
+                        SslHandler sslHandler = resume
+                                ? clientContext.newHandler(ch.alloc(), "localhost", port)
+                                : clientContext.newHandler(ch.alloc());
+                        ch.pipeline().addLast(sslHandler, new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                // 就绪字节在 NewSessionTicket 之后到达，读到它时会话已可恢复
+                                ReferenceCountUtil.release(msg);
+                                ready.complete(null);
+                            }
+
+                            @Override
+                            public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                                ready.completeExceptionally(cause);
+                            }
+                        });
+                    }
+                })
+                .connect("127.0.0.1", port).sync().channel();
+        ready.get(10, TimeUnit.SECONDS);
+        return channel;
+    }
+
+    private SslContext clientContext() throws Exception {
+        return SslContextBuilder.forClient()
+                .sslProvider(provider)
+                .protocols(PROTOCOLS)
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .build();
+    }
+
+    /**
+     * 握手完成后写一个就绪字节，之后只统计收到的字节数
+     */
+    private static final class ServerHandler extends ChannelInboundHandlerAdapter {
+
+        private final AtomicLong received;
+
+        ServerHandler(AtomicLong received) {
+            this.received = received;
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof SslHandshakeCompletionEvent completion && completion.isSuccess()) {
+                ctx.writeAndFlush(Unpooled.wrappedBuffer(new byte[]{1}));
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf buf) {
+                received.addAndGet(buf.readableBytes());
+            }
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JFR 录制文件的延迟汇总
+ *
+ * 单文件程序，不需要编译：
+ *   java jfr/JfrSummary.java recording.jfr [事件名前缀，默认 appfactory.]
+ *
+ * 按事件类型分组（带 operation / outcome 字段的事件再按字段值细分），
+ * 输出次数和耗时的 p50 / p90 / p99 / max（毫秒）的 Markdown 表格
+ */
+public class JfrSummary {
+
+    private static final String[] GROUP_FIELDS = {"operation", "outcome"};
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: java JfrSummary.java <recording.jfr> [event-prefix]");
+            System.exit(2);
+        }
+        String prefix = args.length > 1 ? args[1] : "appfactory.";
+
+        Map<String, LongList> durations = new TreeMap<>();
+        try (RecordingFile recording = new RecordingFile(Path.of(args[0]))) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String name = event.getEventType().getName();
+                if (name.startsWith(prefix)) {
+                    durations.computeIfAbsent(groupKey(name, event), key -> new LongList())
+                            .add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        StringBuilder table = new StringBuilder()
+                .append("| event | count | p50 (ms) | p90 (ms) | p99 (ms) | max (ms) |\n")
+                .append("|---|---|---|---|---|---|\n");
+        durations.forEach((key, values) -> {
+            long[] sorted = values.sorted();
+            table.append(String.format("| %s | %d | %.3f | %.3f | %.3f | %.3f |%n", key, sorted.length,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)), millis(sorted[sorted.length - 1])));
+        });
+        System.out.print(table);
+    }
+
+    private static String groupKey(String name, RecordedEvent event) {
+        List<String> parts = new ArrayList<>();
+        for (String field : GROUP_FIELDS) {
+            if (event.hasField(field)) {
+                Object value = event.getValue(field);
+                parts.add(field + "=" + value);
+            }
+        }
+        return parts.isEmpty() ? name : name + " " + String.join(" ", parts);
+    }
+
+    /**
+     * nearest-rank 百分位
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.appfactory.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 记录丢弃数量的异步 Appender，配置项与 Logback 的 AsyncAppender 相同
+ *
+ * 队列为有界数组（环形缓冲），写日志的线程只负责入队，格式化和输出在后台线程完成。
+ * AsyncAppender 在 neverBlock 时忽略 offer 的返回值，无法得知丢弃了多少条，这里按 offer 的结果计入 queue_full；
+ * 剩余容量低于 discardingThreshold 时丢弃的 INFO 及以下事件计入 discarded
+ */
+public class DropCountingAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final int UNDEFINED = -1;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private BlockingQueue<ILoggingEvent> queue;
+    private Thread worker;
+    private int appenderCount;
+
+    private int queueSize = 256;
+    private int discardingThreshold = UNDEFINED;
+    private boolean neverBlock;
+    private boolean includeCallerData;
+    private int maxFlushTime = 1000;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (appenderCount == 0) {
+            addError("No attached appenders found.");
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        if (discardingThreshold == UNDEFINED) {
+            discardingThreshold = queueSize / 5;
+        }
+        worker = new Thread(this::drain, "AsyncAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        // 后台线程被中断后写出队列中剩余的事件，最多等待 maxFlushTime
+        worker.interrupt();
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) {
+                addWarn("Max queue flush timeout (" + maxFlushTime + " ms) exceeded. "
+                        + queue.size() + " queued events were possibly discarded.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() <= Level.INFO_INT) {
+            LogDropStats.DISCARDED.increment();
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (neverBlock) {
+            if (!queue.offer(event)) {
+                LogDropStats.QUEUE_FULL.increment();
+            }
+        } else {
+            putUninterruptibly(event);
+        }
+    }
+
+    private void putUninterruptibly(ILoggingEvent event) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    queue.put(event);
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void drain() {
+        while (isStarted()) {
+            try {
+                appenders.appendLoopOnAppenders(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        ILoggingEvent event;
+        while ((event = queue.poll()) != null) {
+            appenders.appendLoopOnAppenders(event);
+        }
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        if (appenderCount == 0) {
+            appenderCount++;
+            addInfo("Attaching appender named [" + appender.getName() + "] to " + getName());
+            appenders.addAppender(appender);
+        } else {
+            addWarn("One and only one appender may be attached to " + getName()
+                    + ". Ignoring additional appender named [" + appender.getName() + "]");
+        }
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,51 @@
+package com.appfactory.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 被丢弃的日志事件计数
+ *
+ * TurboFilter 和 Appender 由 Logback 实例化，早于 Spring 容器，计数放在静态字段中，
+ * 由 LoggingAutoConfiguration 注册为 logging.events.dropped{reason} 指标
+ */
+public final class LogDropStats {
+
+    /**
+     * 异步队列已满
+     */
+    static final LongAdder QUEUE_FULL = new LongAdder();
+
+    /**
+     * 队列剩余容量低于阈值时丢弃的 INFO 及以下事件
+     */
+    static final LongAdder DISCARDED = new LongAdder();
+
+    /**
+     * 超过单个 logger 的速率上限
+     */
+    static final LongAdder RATE_LIMITED = new LongAdder();
+
+    /**
+     * 重复消息超过阈值后未被采样
+     */
+    static final LongAdder SAMPLED_OUT = new LongAdder();
+
+    private LogDropStats() {
+    }
+
+    public static long queueFull() {
+        return QUEUE_FULL.sum();
+    }
+
+    public static long discarded() {
+        return DISCARDED.sum();
+    }
+
+    public static long rateLimited() {
+        return RATE_LIMITED.sum();
+    }
+
+    public static long sampledOut() {
+        return SAMPLED_OUT.sum();
+    }
+}
@@ -0,0 +1,35 @@
+package com.appfactory.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 将 LogDropStats 注册为 logging.events.dropped{reason} 指标，gateway 与 user-service 共用
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+public class LoggingAutoConfiguration {
+
+    @Bean
+    public MeterBinder logDropMetrics() {
+        return registry -> {
+            register(registry, "queue_full", LogDropStats::queueFull);
+            register(registry, "discarded", LogDropStats::discarded);
+            register(registry, "rate_limited", LogDropStats::rateLimited);
+            register(registry, "sampled_out", LogDropStats::sampledOut);
+        };
+    }
+
+    private static void register(MeterRegistry registry, String reason, LongSupplier count) {
+        FunctionCounter.builder("logging.events.dropped", count, LongSupplier::getAsLong)
+                .description("Log events dropped before reaching an appender")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,130 @@
+package com.appfactory.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 logger 限流并对重复消息采样的 TurboFilter
+ *
+ * TurboFilter 在创建日志事件和格式化消息之前执行，被拒绝的调用只有一次 Map 查找的开销：
+ * - 重复消息：同一 logger 的同一格式串在 windowSeconds 内超过 repeatThreshold 次后，每 sampleRate 条只保留 1 条
+ * - 速率：每个 logger 一个令牌桶（ratePerSecond / burst）
+ * 级别未开启的调用直接放行给 Logback 的级别判断，不计入统计；exemptLevel（默认 WARN）及以上的事件不限流也不采样
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    /**
+     * 单个 logger 跟踪的格式串上限，超出后清空（拼接出来的消息每条都不同，不能无限增长）
+     */
+    private static final int MAX_TRACKED_FORMATS = 1_000;
+
+    private final Map<Logger, LoggerState> states = new ConcurrentHashMap<>();
+
+    private double ratePerSecond = 200;
+    private int burst = 500;
+    private int repeatThreshold = 20;
+    private int sampleRate = 100;
+    private long windowSeconds = 60;
+    private Level exemptLevel = Level.WARN;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || level.isGreaterOrEqual(exemptLevel)) {
+            return FilterReply.NEUTRAL;
+        }
+        LoggerState state = states.get(logger);
+        if (state == null) {
+            state = states.computeIfAbsent(logger, key -> new LoggerState(burst));
+        }
+        if (!state.sample(format)) {
+            LogDropStats.SAMPLED_OUT.increment();
+            return FilterReply.DENY;
+        }
+        if (!state.tryAcquire()) {
+            LogDropStats.RATE_LIMITED.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public void setRepeatThreshold(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    /**
+     * 不受限流和采样影响的最低级别，无法识别时使用 WARN
+     */
+    public void setExemptLevel(String exemptLevel) {
+        this.exemptLevel = Level.toLevel(exemptLevel, Level.WARN);
+    }
+
+    private final class LoggerState {
+
+        private final Map<String, Repeat> repeats = new ConcurrentHashMap<>();
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        LoggerState(int burst) {
+            this.tokens = burst;
+        }
+
+        boolean sample(String format) {
+            Repeat repeat = repeats.get(format);
+            if (repeat == null) {
+                if (repeats.size() >= MAX_TRACKED_FORMATS) {
+                    repeats.clear();
+                }
+                repeat = repeats.computeIfAbsent(format, key -> new Repeat());
+            }
+            long now = System.nanoTime();
+            long windowStart = repeat.windowStart;
+            if (now - windowStart > windowSeconds * 1_000_000_000L) {
+                // 并发重置时可能多放行几条，不影响统计意义
+                repeat.windowStart = now;
+                repeat.count.set(0);
+            }
+            long count = repeat.count.incrementAndGet();
+            return count <= repeatThreshold || (count - repeatThreshold) % sampleRate == 1 % sampleRate;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSecond);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    private static final class Repeat {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long windowStart = System.nanoTime();
+    }
+}
@@ -0,0 +1,147 @@
+package com.appfactory.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志开销基准（JMH）
+ *
+ *   mvn -pl logging test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main LoggingBenchmark"
+ *
+ * 每个场景使用独立的 LoggerContext，输出写入空流（只测框架开销，不测终端/磁盘），
+ * 8 个线程并发写同一 logger（-t 可调整），测量调用线程上每条日志的平均耗时：
+ * - disabled-debug：级别未开启的 debug 调用
+ * - sync-pattern：原配置，同步 ConsoleAppender + %thread 文本格式
+ * - async-json：prod 配置的异步 JSON，不带限流
+ * - async-json-sampled：prod 配置，全部为重复消息，经 RateLimitingTurboFilter 采样
+ * 各场景结束时打印丢弃数（queue_full / rate_limited / sampled_out）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    @Param({"disabled-debug", "sync-pattern", "async-json", "async-json-sampled"})
+    private String scenario;
+
+    private LoggerContext context;
+    private Logger logger;
+    private boolean enabled;
+    private long queueFull;
+    private long rateLimited;
+    private long sampledOut;
+
+    @Setup
+    public void setUp() {
+        context = new LoggerContext();
+        context.setName(scenario);
+        context.start();
+
+        Appender<ILoggingEvent> appender = scenario.startsWith("async") ? asyncJson(context) : syncPattern(context);
+        if (scenario.endsWith("sampled")) {
+            RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        logger = context.getLogger("com.appfactory.gateway.filter.JwtAuthenticationFilter");
+        enabled = !scenario.equals("disabled-debug");
+
+        queueFull = LogDropStats.queueFull();
+        rateLimited = LogDropStats.rateLimited();
+        sampledOut = LogDropStats.sampledOut();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        System.out.printf("%n%s dropped (queue_full / rate_limited / sampled_out): %d / %d / %d%n", scenario,
+                LogDropStats.queueFull() - queueFull,
+                LogDropStats.rateLimited() - rateLimited,
+                LogDropStats.sampledOut() - sampledOut);
+    }
+
+    /**
+     * 使用 INFO：WARN 及以上不经限流和采样
+     */
+    @Benchmark
+    public void log() {
+        if (enabled) {
+            logger.info("Token rejected for path: {}", "/api/v1/users/me");
+        } else {
+            logger.debug("Token validation failed: {}", "JWT expired");
+        }
+    }
+
+    private static Appender<ILoggingEvent> syncPattern(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setPattern(PATTERN);
+        return nullAppender(context, encoder);
+    }
+
+    private static Appender<ILoggingEvent> asyncJson(LoggerContext context) {
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setWithFormattedMessage(true);
+        encoder.setWithMessage(false);
+        encoder.setWithArguments(false);
+        encoder.setWithSequenceNumber(false);
+        encoder.setWithNanoseconds(false);
+        encoder.setWithContext(false);
+
+        DropCountingAsyncAppender async = new DropCountingAsyncAppender();
+        async.setContext(context);
+        async.setName("ASYNC_JSON");
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(nullAppender(context, encoder));
+        async.start();
+        return async;
+    }
+
+    private static Appender<ILoggingEvent> nullAppender(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setName("NULL");
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+}
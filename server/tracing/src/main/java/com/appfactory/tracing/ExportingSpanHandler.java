@@ -0,0 +1,27 @@
+package com.appfactory.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import java.util.List;
+
+/**
+ * 未开启尾部采样时使用：头部采样记录的 span 结束后逐个交给 TraceExporter
+ */
+public class ExportingSpanHandler extends SpanHandler {
+
+    private final TraceExporter exporter;
+
+    public ExportingSpanHandler(TraceExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            exporter.export(List.of(span));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package com.appfactory.tracing;
+
+import brave.handler.MutableSpan;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件导出器，每行一个 Zipkin v2 JSON span，可直接导入 Zipkin UI 离线查看
+ *
+ * 调用线程只做入队，由后台线程批量写文件；队列满时丢弃并计数
+ */
+@Slf4j
+public class FileTraceExporter implements TraceExporter, AutoCloseable {
+
+    private final BlockingQueue<MutableSpan> queue;
+    private final BufferedWriter writer;
+    private final Thread worker;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    public FileTraceExporter(Path path, int queueCapacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.worker = new Thread(this::drainLoop, "trace-file-exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void export(List<MutableSpan> spans) {
+        for (MutableSpan span : spans) {
+            if (!queue.offer(span)) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        List<MutableSpan> batch = new ArrayList<>(256);
+        while (running || !queue.isEmpty()) {
+            try {
+                MutableSpan first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (MutableSpan span : batch) {
+                    // MutableSpan#toString 输出 Zipkin v2 JSON
+                    writer.write(span.toString());
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to write spans: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        writer.close();
+    }
+}
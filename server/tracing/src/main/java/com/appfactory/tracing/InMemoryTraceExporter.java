@@ -0,0 +1,38 @@
+package com.appfactory.tracing;
+
+import brave.handler.MutableSpan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存导出器，保留最近的 span，用于离线调试和测试
+ */
+public class InMemoryTraceExporter implements TraceExporter {
+
+    private final MutableSpan[] ring;
+    private long written;
+
+    public InMemoryTraceExporter(int capacity) {
+        this.ring = new MutableSpan[capacity];
+    }
+
+    @Override
+    public synchronized void export(List<MutableSpan> spans) {
+        for (MutableSpan span : spans) {
+            ring[(int) (written++ % ring.length)] = span;
+        }
+    }
+
+    /**
+     * 按写入顺序返回当前保留的 span
+     */
+    public synchronized List<MutableSpan> snapshot() {
+        int size = (int) Math.min(written, ring.length);
+        List<MutableSpan> result = new ArrayList<>(size);
+        for (long i = written - size; i < written; i++) {
+            result.add(ring[(int) (i % ring.length)]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,193 @@
+package com.appfactory.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地尾部采样
+ *
+ * 以本地根 span（进程内入口）为单位缓冲子 span，根 span 结束后决定整条本地链路是否导出：
+ * - 出错的链路总是保留
+ * - 根 span 耗时超过阈值的链路总是保留
+ * - 其余链路按 traceId 哈希比例保留，各服务对同一 traceId 的结论一致，跨服务链路不会残缺
+ *
+ * 决定后的 span 交给 TraceExporter，本处理器对后续 SpanHandler 返回 false。
+ * start 启动后台清理线程；close 停止清理线程，并按同样的规则导出仍在缓冲中的链路
+ */
+public class TailSamplingSpanHandler extends SpanHandler implements AutoCloseable {
+
+    private static final long SWEEP_INTERVAL_SECONDS = 10;
+
+    private final TracingProperties.Tail config;
+    private final TraceExporter exporter;
+    private final long latencyThresholdMicros;
+    private final long maxBufferMicros;
+    private final long sampleBound;
+
+    private final Map<Long, Buffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong keptTraces = new AtomicLong();
+    private final AtomicLong droppedTraces = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+
+    public TailSamplingSpanHandler(TracingProperties.Tail config, TraceExporter exporter) {
+        this.config = config;
+        this.exporter = exporter;
+        this.latencyThresholdMicros = TimeUnit.NANOSECONDS.toMicros(config.getLatencyThreshold().toNanos());
+        this.maxBufferMicros = TimeUnit.NANOSECONDS.toMicros(config.getMaxBufferTime().toNanos());
+        this.sampleBound = (long) (Long.MAX_VALUE * Math.max(0, Math.min(1, config.getSampleRate())));
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return false;
+        }
+        long rootId = context.localRootId();
+
+        if (context.isLocalRoot()) {
+            Buffer buffer = buffers.remove(rootId);
+            List<MutableSpan> spans = buffer != null ? buffer.drain() : new ArrayList<>(1);
+            spans.add(span);
+            if (shouldKeep(context, span, buffer != null && buffer.error)) {
+                keptTraces.incrementAndGet();
+                exporter.export(spans);
+            } else {
+                droppedTraces.incrementAndGet();
+            }
+            return false;
+        }
+
+        Buffer buffer = buffers.get(rootId);
+        if (buffer == null) {
+            if (buffers.size() >= config.getMaxBufferedTraces()) {
+                // 缓冲已满：退化为按比例采样，不再保证错误/慢链路完整
+                exportIfSampled(context, span);
+                return false;
+            }
+            buffer = buffers.computeIfAbsent(rootId, id -> new Buffer(span.startTimestamp()));
+        }
+        buffer.add(span);
+        return false;
+    }
+
+    public synchronized void start() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trace-buffer-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> sweep(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())),
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        if (sweeper != null) {
+            sweeper.shutdown();
+            sweeper.awaitTermination(SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            sweeper = null;
+        }
+        buffers.entrySet().removeIf(entry -> {
+            flush(entry.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * 清理根 span 迟迟未结束（或根 span 已结束后才结束的异步子 span）的缓冲
+     */
+    public void sweep(long nowMicros) {
+        buffers.entrySet().removeIf(entry -> {
+            Buffer buffer = entry.getValue();
+            if (nowMicros - buffer.createdAtMicros < maxBufferMicros) {
+                return false;
+            }
+            flush(buffer);
+            return true;
+        });
+    }
+
+    public long getKeptTraces() {
+        return keptTraces.get();
+    }
+
+    public long getDroppedTraces() {
+        return droppedTraces.get();
+    }
+
+    public int getBufferedTraces() {
+        return buffers.size();
+    }
+
+    private void flush(Buffer buffer) {
+        List<MutableSpan> spans = buffer.drain();
+        if (buffer.error || (!spans.isEmpty() && isSampled(spans.get(0).traceId()))) {
+            exporter.export(spans);
+        }
+    }
+
+    private boolean shouldKeep(TraceContext context, MutableSpan root, boolean childError) {
+        if (childError || isError(root)) {
+            return true;
+        }
+        long duration = root.finishTimestamp() - root.startTimestamp();
+        if (duration >= latencyThresholdMicros) {
+            return true;
+        }
+        return isSampled(context.traceIdString());
+    }
+
+    private void exportIfSampled(TraceContext context, MutableSpan span) {
+        if (isError(span) || isSampled(context.traceIdString())) {
+            exporter.export(List.of(span));
+        }
+    }
+
+    private boolean isSampled(String traceId) {
+        // 取 traceId 低 64 位，与 Brave 的 TraceIdRatioBased 采样同样以 traceId 为依据
+        String low = traceId.length() > 16 ? traceId.substring(traceId.length() - 16) : traceId;
+        long hash = Long.parseUnsignedLong(low, 16) & Long.MAX_VALUE;
+        return hash <= sampleBound;
+    }
+
+    private static boolean isError(MutableSpan span) {
+        return span.error() != null || span.tag("error") != null;
+    }
+
+    private static final class Buffer {
+        private final long createdAtMicros;
+        private final List<MutableSpan> spans = new ArrayList<>();
+        private volatile boolean error;
+
+        Buffer(long createdAtMicros) {
+            this.createdAtMicros = createdAtMicros;
+        }
+
+        synchronized void add(MutableSpan span) {
+            spans.add(span);
+            if (isError(span)) {
+                error = true;
+            }
+        }
+
+        synchronized List<MutableSpan> drain() {
+            List<MutableSpan> drained = new ArrayList<>(spans.size() + 1);
+            drained.addAll(spans);
+            spans.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.appfactory.tracing;
+
+import brave.handler.MutableSpan;
+
+import java.util.List;
+
+/**
+ * Span 导出器扩展点
+ *
+ * 由 TailSamplingSpanHandler 在采样决定后调用，实现不应阻塞调用线程
+ */
+public interface TraceExporter {
+
+    void export(List<MutableSpan> spans);
+}
@@ -0,0 +1,76 @@
+package com.appfactory.tracing;
+
+import brave.Tracing;
+import brave.handler.SpanHandler;
+import brave.sampler.Sampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.autoconfigure.tracing.BraveAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 链路追踪自动配置，gateway 与 user-service 共用
+ *
+ * Span 的创建和 traceparent 传播由 Spring Boot 的 Micrometer Tracing（Brave）完成，
+ * 这里只注册导出器，以及把 span 交给导出器的处理器：开启尾部采样时为 TailSamplingSpanHandler，否则逐个导出。
+ * 没有配置导出器（type=NONE 且没有自定义 TraceExporter）时不采样，span 不会被记录、缓冲后再丢弃
+ */
+@Slf4j
+@AutoConfiguration(before = BraveAutoConfiguration.class)
+@ConditionalOnClass(Tracing.class)
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingAutoConfiguration {
+
+    /**
+     * 先于 BraveAutoConfiguration 的按比例采样器注册；嵌套类先于下面的 traceExporter 处理，
+     * 这里只看得到应用自己声明的 TraceExporter
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "appfactory.tracing.exporter", name = "type", havingValue = "NONE",
+            matchIfMissing = true)
+    @ConditionalOnMissingBean(TraceExporter.class)
+    static class NoExporterSamplerConfiguration {
+
+        @Bean
+        public Sampler neverSampler() {
+            log.info("No trace exporter configured, tracing is not sampled");
+            return Sampler.NEVER_SAMPLE;
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TraceExporter traceExporter(TracingProperties properties) throws IOException {
+        TracingProperties.Exporter exporter = properties.getExporter();
+        return switch (exporter.getType()) {
+            case MEMORY -> new InMemoryTraceExporter(exporter.getMemoryCapacity());
+            case FILE -> new FileTraceExporter(Path.of(exporter.getFilePath()), exporter.getQueueCapacity());
+            case NONE -> spans -> { };
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "appfactory.tracing.tail", name = "enabled", havingValue = "true")
+    public SpanHandler tailSamplingSpanHandler(TracingProperties properties, TraceExporter exporter) {
+        TailSamplingSpanHandler handler = new TailSamplingSpanHandler(properties.getTail(), exporter);
+        handler.start();
+        log.info("Tail sampling enabled: sampleRate={}, latencyThreshold={}",
+                properties.getTail().getSampleRate(), properties.getTail().getLatencyThreshold());
+        return handler;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "appfactory.tracing.tail", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    public SpanHandler exportingSpanHandler(TraceExporter exporter) {
+        return new ExportingSpanHandler(exporter);
+    }
+}
@@ -0,0 +1,70 @@
+package com.appfactory.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 链路追踪配置
+ *
+ * 头部采样使用 management.tracing.sampling.probability；
+ * 开启尾部采样时应把头部采样设为 1.0，由本模块在本地根 span 结束后决定是否导出
+ */
+@Data
+@ConfigurationProperties(prefix = "appfactory.tracing")
+public class TracingProperties {
+
+    private Tail tail = new Tail();
+
+    private Exporter exporter = new Exporter();
+
+    @Data
+    public static class Tail {
+        private boolean enabled = false;
+
+        /**
+         * 正常链路的保留比例，按 traceId 哈希决定，各服务对同一条链路的结论一致
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * 本地根 span 耗时超过此值的链路总是保留
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /**
+         * 同时缓冲的链路数上限，超出后新链路直接按比例采样不再缓冲
+         */
+        private int maxBufferedTraces = 10_000;
+
+        /**
+         * 未结束链路的最长缓冲时间
+         */
+        private Duration maxBufferTime = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Exporter {
+        private Type type = Type.NONE;
+
+        /**
+         * FILE：每行一个 Zipkin v2 JSON span
+         */
+        private String filePath = "logs/traces.jsonl";
+
+        /**
+         * MEMORY：保留最近的 span 数
+         */
+        private int memoryCapacity = 10_000;
+
+        /**
+         * 异步导出队列长度，满时丢弃
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    public enum Type {
+        NONE, MEMORY, FILE
+    }
+}
@@ -13,5 +13,6 @@ public class AuthResponse {
     private String accessToken;
     private String refreshToken;
     private Long expiresIn;
+    private String deviceId;
     private UserInfo user;
 }
@@ -0,0 +1,13 @@
+package com.appfactory.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchIntrospectRequest {
+
+    @NotEmpty(message = "令牌列表不能为空")
+    private List<String> tokens;
+}
@@ -0,0 +1,14 @@
+package com.appfactory.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchUserRequest {
+
+    @NotEmpty(message = "用户 ID 列表不能为空")
+    private List<@NotNull(message = "用户 ID 不能为空") Long> ids;
+}
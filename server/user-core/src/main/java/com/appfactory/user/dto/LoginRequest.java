@@ -17,4 +17,10 @@ public class LoginRequest {
 
     @Pattern(regexp = "^\\d{6}$", message = "验证码必须是6位数字")
     private String verificationCode;
+
+    @Size(max = 64, message = "设备 ID 长度不能超过64")
+    private String deviceId;
+
+    @Size(max = 100, message = "设备名称长度不能超过100")
+    private String deviceName;
 }
@@ -20,4 +20,10 @@ public class RegisterRequest {
 
     @Size(max = 50, message = "昵称长度不能超过50")
     private String nickname;
+
+    @Size(max = 64, message = "设备 ID 长度不能超过64")
+    private String deviceId;
+
+    @Size(max = 100, message = "设备名称长度不能超过100")
+    private String deviceName;
 }
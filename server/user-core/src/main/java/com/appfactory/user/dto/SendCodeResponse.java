@@ -0,0 +1,20 @@
+package com.appfactory.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 发送验证码结果
+ *
+ * sent 为 false 表示仍在冷却期内，本次未发送；cooldownSeconds 为距可再次发送的剩余秒数，供客户端显示倒计时
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendCodeResponse {
+    private boolean sent;
+    private long cooldownSeconds;
+}
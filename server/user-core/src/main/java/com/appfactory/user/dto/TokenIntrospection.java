@@ -0,0 +1,24 @@
+package com.appfactory.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单个令牌的校验结果，active 为 false 时 reason 说明原因（expired / invalid / revoked / not_access_token）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospection {
+    private boolean active;
+    private String reason;
+    private Long userId;
+    private String phone;
+    private LocalDateTime issuedAt;
+    private LocalDateTime expiresAt;
+}
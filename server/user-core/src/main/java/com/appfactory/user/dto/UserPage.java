@@ -0,0 +1,20 @@
+package com.appfactory.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 用户列表的一页（keyset 分页），nextCursor 为 null 表示没有更多数据
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserInfo> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.appfactory.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JWT 验签
+ *
+ * 所有 JFR 事件的用法相同：new 之后 begin()，结束时调用 record。
+ * 未开启录制时 shouldCommit() 为 false，字段不会赋值，事件对象经逃逸分析后不会分配
+ */
+@Name("appfactory.auth.JwtVerification")
+@Label("JWT Verification")
+@Category({"AppFactory", "Auth"})
+@Description("Parsing and signature check of a JWT in user-service")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    public static final String VALID = "valid";
+    public static final String EXPIRED = "expired";
+    public static final String INVALID = "invalid";
+
+    @Label("Outcome")
+    String outcome;
+
+    public void record(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.appfactory.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * BCrypt 计算，cost 取自编码器配置（encode）或哈希本身（match）
+ */
+@Name("appfactory.auth.PasswordHash")
+@Label("Password Hash")
+@Category({"AppFactory", "Auth"})
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    public static final String ENCODE = "encode";
+    public static final String MATCH = "match";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Cost")
+    int cost;
+
+    @Label("Matched")
+    boolean matched;
+
+    public void record(String operation, int cost, boolean matched) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.cost = cost;
+            this.matched = matched;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.appfactory.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * refresh token 轮换，覆盖验签、查库和签发新令牌
+ */
+@Name("appfactory.auth.RefreshRotation")
+@Label("Refresh Rotation")
+@Category({"AppFactory", "Auth"})
+@StackTrace(false)
+public class RefreshRotationEvent extends Event {
+
+    public static final String ROTATED = "rotated";
+    public static final String INVALID = "invalid";
+    public static final String MISSING = "missing";
+    public static final String EXPIRED = "expired";
+    public static final String USER_MISSING = "user_missing";
+    public static final String REUSED = "reused";
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("User Id")
+    long userId;
+
+    public void record(String outcome, Long userId) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.userId = userId != null ? userId : 0L;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.appfactory.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 短信验证码发送和校验
+ */
+@Name("appfactory.auth.VerificationCode")
+@Label("Verification Code")
+@Category({"AppFactory", "Auth"})
+@StackTrace(false)
+public class VerificationCodeEvent extends Event {
+
+    public static final String SEND = "send";
+    public static final String VERIFY = "verify";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Code Type")
+    String codeType;
+
+    /**
+     * send: sent / reused / cooldown / failed；verify: verified / missing / expired / locked / mismatch
+     */
+    @Label("Outcome")
+    String outcome;
+
+    public void record(String operation, String codeType, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.codeType = codeType;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
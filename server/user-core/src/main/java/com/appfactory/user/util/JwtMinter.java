@@ -0,0 +1,211 @@
+package com.appfactory.user.util;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * HMAC 签名 JWT 的直接拼装
+ *
+ * 输出与 jjwt 0.12 的 Jwts.builder() 逐字节一致（JwtUtil 启动时比对，不一致则不启用）：
+ * 头部只有 alg，预先编码；claims 按 jjwt 的序列化顺序直接写入字节缓冲，不经过 Map 和 Jackson。
+ * 每个线程复用一个已初始化的 Mac 和两块缓冲，除返回的 String 外不产生分配
+ */
+final class JwtMinter {
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKey key;
+    private final byte[] encodedHeader;
+    private final ThreadLocal<Buffers> buffers;
+
+    JwtMinter(SecretKey key) throws GeneralSecurityException {
+        this.key = key;
+        byte[] header = ("{\"alg\":\"" + jwsAlgorithm(key.getAlgorithm()) + "\"}").getBytes(StandardCharsets.US_ASCII);
+        this.encodedHeader = new byte[encodedLength(header.length)];
+        encode(header, header.length, encodedHeader, 0);
+        // 提前校验密钥可用，之后各线程的初始化不会失败
+        newMac();
+        this.buffers = ThreadLocal.withInitial(this::newBuffers);
+    }
+
+    /**
+     * jjwt 的 JSON 序列化会转义引号、反斜杠和控制字符，并原样输出非 ASCII 字符；
+     * 这里只处理不需要转义的可打印 ASCII，其余交给 jjwt
+     */
+    static boolean isPlainAscii(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {"phone":..,"type":"access","userId":..,"sub":..,"iat":..,"exp":..}，
+     * 前三个字段的顺序与 jjwt 遍历 HashMap 的顺序相同
+     */
+    String accessToken(long userId, String phone, long issuedAtSeconds, long expiresAtSeconds) {
+        Buffers b = buffers.get();
+        b.reset();
+        b.ascii("{\"phone\":\"").ascii(phone).ascii("\",\"type\":\"access\",\"userId\":").number(userId);
+        return b.registered(userId, issuedAtSeconds, expiresAtSeconds).sign();
+    }
+
+    /**
+     * {"type":"refresh","userId":..,"sub":..,"iat":..,"exp":..}
+     */
+    String refreshToken(long userId, long issuedAtSeconds, long expiresAtSeconds) {
+        Buffers b = buffers.get();
+        b.reset();
+        b.ascii("{\"type\":\"refresh\",\"userId\":").number(userId);
+        return b.registered(userId, issuedAtSeconds, expiresAtSeconds).sign();
+    }
+
+    private Mac newMac() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(key.getAlgorithm());
+        mac.init(key);
+        return mac;
+    }
+
+    private Buffers newBuffers() {
+        try {
+            return new Buffers(newMac());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String jwsAlgorithm(String macAlgorithm) {
+        return switch (macAlgorithm) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Unsupported signing key algorithm: " + macAlgorithm);
+        };
+    }
+
+    private static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    /**
+     * Base64URL 无填充编码 src[0, length)，返回写入 dst 后的位置
+     */
+    private static int encode(byte[] src, int length, byte[] dst, int offset) {
+        int s = 0;
+        int d = offset;
+        int whole = length - length % 3;
+        while (s < whole) {
+            int bits = (src[s++] & 0xff) << 16 | (src[s++] & 0xff) << 8 | (src[s++] & 0xff);
+            dst[d++] = BASE64URL[bits >>> 18 & 0x3f];
+            dst[d++] = BASE64URL[bits >>> 12 & 0x3f];
+            dst[d++] = BASE64URL[bits >>> 6 & 0x3f];
+            dst[d++] = BASE64URL[bits & 0x3f];
+        }
+        int remaining = length - whole;
+        if (remaining == 1) {
+            int bits = (src[s] & 0xff) << 16;
+            dst[d++] = BASE64URL[bits >>> 18 & 0x3f];
+            dst[d++] = BASE64URL[bits >>> 12 & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8;
+            dst[d++] = BASE64URL[bits >>> 18 & 0x3f];
+            dst[d++] = BASE64URL[bits >>> 12 & 0x3f];
+            dst[d++] = BASE64URL[bits >>> 6 & 0x3f];
+        }
+        return d;
+    }
+
+    private final class Buffers {
+
+        private final Mac mac;
+        private final byte[] signature;
+        private byte[] payload = new byte[256];
+        private byte[] token = new byte[512];
+        private int length;
+
+        Buffers(Mac mac) {
+            this.mac = mac;
+            this.signature = new byte[mac.getMacLength()];
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        Buffers ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                payload[length++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        /**
+         * 十进制写入，按负数累加以覆盖 Long.MIN_VALUE
+         */
+        Buffers number(long value) {
+            ensure(20);
+            long negative = value < 0 ? value : -value;
+            if (value < 0) {
+                payload[length++] = '-';
+            }
+            int start = length;
+            do {
+                payload[length++] = (byte) ('0' - negative % 10);
+                negative /= 10;
+            } while (negative != 0);
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte tmp = payload[i];
+                payload[i] = payload[j];
+                payload[j] = tmp;
+            }
+            return this;
+        }
+
+        Buffers registered(long userId, long issuedAtSeconds, long expiresAtSeconds) {
+            ascii(",\"sub\":\"").number(userId);
+            ascii("\",\"iat\":").number(issuedAtSeconds);
+            ascii(",\"exp\":").number(expiresAtSeconds);
+            return ascii("}");
+        }
+
+        String sign() {
+            int headerLength = encodedHeader.length;
+            int signedLength = headerLength + 1 + encodedLength(length);
+            int total = signedLength + 1 + encodedLength(signature.length);
+            if (token.length < total) {
+                token = new byte[Math.max(total, token.length * 2)];
+            }
+            System.arraycopy(encodedHeader, 0, token, 0, headerLength);
+            token[headerLength] = '.';
+            encode(payload, length, token, headerLength + 1);
+
+            mac.update(token, 0, signedLength);
+            try {
+                mac.doFinal(signature, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            token[signedLength] = '.';
+            encode(signature, signature.length, token, signedLength + 1);
+            // 纯 ASCII，按 Latin-1 构造时直接复制字节
+            return new String(token, 0, total, StandardCharsets.ISO_8859_1);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > payload.length) {
+                payload = Arrays.copyOf(payload, Math.max(length + extra, payload.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.appfactory.user.util;
+
+import com.appfactory.user.jfr.JwtVerificationEvent;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class JwtUtil {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Long accessTokenExpiration;
+    private final Long refreshTokenExpiration;
+    private final JwtMinter minter;
+
+    // 另有一个供基准切换实现的构造器，需要显式指定 Spring 使用哪个
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.access-token-expiration}") Long accessTokenExpiration,
+                   @Value("${jwt.refresh-token-expiration}") Long refreshTokenExpiration) {
+        this(secret, accessTokenExpiration, refreshTokenExpiration, true);
+    }
+
+    JwtUtil(String secret, Long accessTokenExpiration, Long refreshTokenExpiration, boolean fastPath) {
+        // 密钥和解析器不可变且线程安全，只构建一次
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.minter = fastPath ? createMinter() : null;
+    }
+
+    public String generateAccessToken(Long userId, String phone) {
+        long now = System.currentTimeMillis();
+        if (minter != null && JwtMinter.isPlainAscii(phone)) {
+            return minter.accessToken(userId, phone, now / 1000, (now + accessTokenExpiration) / 1000);
+        }
+        return buildAccessToken(userId, phone, now);
+    }
+
+    public String generateRefreshToken(Long userId) {
+        long now = System.currentTimeMillis();
+        if (minter != null) {
+            return minter.refreshToken(userId, now / 1000, (now + refreshTokenExpiration) / 1000);
+        }
+        return buildRefreshToken(userId, now);
+    }
+
+    /**
+     * jjwt 实现，作为 JwtMinter 的对照和不支持时的回退（JwtMinterTest 逐字节比对）
+     */
+    String buildAccessToken(Long userId, String phone, long now) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put("phone", phone);
+        claims.put("type", "access");
+
+        return Jwts.builder()
+                .claims(claims)
+                .subject(userId.toString())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + accessTokenExpiration))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    String buildRefreshToken(Long userId, long now) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put("type", "refresh");
+
+        return Jwts.builder()
+                .claims(claims)
+                .subject(userId.toString())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + refreshTokenExpiration))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * 用固定输入对比两种实现，输出不一致（如 jjwt 升级后序列化变化）时只用 jjwt
+     */
+    private JwtMinter createMinter() {
+        try {
+            JwtMinter candidate = new JwtMinter(signingKey);
+            long now = 1_700_000_000_123L;
+            boolean identical = candidate.accessToken(42L, "13800138000", now / 1000, (now + accessTokenExpiration) / 1000)
+                    .equals(buildAccessToken(42L, "13800138000", now))
+                    && candidate.refreshToken(-42L, now / 1000, (now + refreshTokenExpiration) / 1000)
+                    .equals(buildRefreshToken(-42L, now));
+            if (identical) {
+                return candidate;
+            }
+            log.warn("JwtMinter output differs from jjwt, falling back to Jwts.builder()");
+        } catch (Exception e) {
+            log.warn("JwtMinter unavailable, falling back to Jwts.builder(): {}", e.getMessage());
+        }
+        return null;
+    }
+
+    public Claims parseToken(String token) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        String outcome = JwtVerificationEvent.INVALID;
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            outcome = JwtVerificationEvent.VALID;
+            return claims;
+        } catch (ExpiredJwtException e) {
+            outcome = JwtVerificationEvent.EXPIRED;
+            throw e;
+        } finally {
+            event.record(outcome);
+        }
+    }
+
+    public Long getUserIdFromToken(String token) {
+        Claims claims = parseToken(token);
+        return claims.get("userId", Long.class);
+    }
+
+    public boolean validateToken(String token) {
+        try {
+            Claims claims = parseToken(token);
+            return !claims.getExpiration().before(new Date());
+        } catch (Exception e) {
+            // 过期、篡改的令牌属于正常请求结果，不打印堆栈
+            log.debug("Token validation failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public Long getAccessTokenExpiration() {
+        return accessTokenExpiration;
+    }
+
+    public Long getRefreshTokenExpiration() {
+        return refreshTokenExpiration;
+    }
+}
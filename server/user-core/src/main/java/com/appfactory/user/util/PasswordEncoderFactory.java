@@ -0,0 +1,85 @@
+package com.appfactory.user.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 密码编码器工厂，user-service 与 user-service-reactive 共用
+ *
+ * - 启动时测量本机 BCrypt 耗时，选出不超过目标延迟的最大 cost（也可通过 auth.password.bcrypt-cost 固定）
+ * - 新哈希带算法前缀存储，如 {bcrypt}$2a$12$...，cost 记录在哈希本身中
+ * - 不带前缀的历史哈希仍按 BCrypt 校验，upgradeEncoding 对其以及 cost 低于当前值的哈希返回 true，
+ *   登录成功后可据此重新哈希，无需数据迁移
+ * - 每次 encode / matches 记录一个 JFR 事件（appfactory.auth.PasswordHash）
+ */
+@Slf4j
+@Component
+public class PasswordEncoderFactory {
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final int CALIBRATION_COST = 8;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    @Value("${auth.password.bcrypt-cost:0}")
+    private int fixedCost;
+
+    @Value("${auth.password.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    @Value("${auth.password.min-cost:10}")
+    private int minCost;
+
+    @Value("${auth.password.max-cost:14}")
+    private int maxCost;
+
+    private volatile int cost;
+
+    public PasswordEncoder create() {
+        int strength = fixedCost > 0 ? fixedCost : calibrate();
+        cost = strength;
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID,
+                Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        // 历史数据没有 {id} 前缀，按 BCrypt 校验（cost 从哈希中读取，与当前 strength 无关）
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new RecordingPasswordEncoder(encoder, strength);
+    }
+
+    /**
+     * 当前使用的 cost，create() 调用前为 0
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * BCrypt 耗时随 cost 每 +1 翻倍：在较低 cost 下取多次测量的最小值，再外推到目标延迟
+     */
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_COST);
+        probe.encode("calibration"); // 首次调用包含类加载和 JIT，不计入
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double targetNanos = targetLatencyMs * 1_000_000.0;
+        int chosen = CALIBRATION_COST;
+        while (chosen < maxCost && best * Math.pow(2, chosen + 1 - CALIBRATION_COST) <= targetNanos) {
+            chosen++;
+        }
+        chosen = Math.max(minCost, chosen);
+
+        log.info("BCrypt calibrated: cost {} takes ~{} ms (cost {} measured {} µs, target {} ms)",
+                chosen, Math.round(best * Math.pow(2, chosen - CALIBRATION_COST) / 1_000_000),
+                CALIBRATION_COST, best / 1000, targetLatencyMs);
+        return chosen;
+    }
+}
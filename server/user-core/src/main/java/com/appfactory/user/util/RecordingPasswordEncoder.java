@@ -0,0 +1,60 @@
+package com.appfactory.user.util;
+
+import com.appfactory.user.jfr.PasswordHashEvent;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 为 encode / matches 记录 PasswordHashEvent 的包装
+ */
+final class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final int cost;
+
+    RecordingPasswordEncoder(PasswordEncoder delegate, int cost) {
+        this.delegate = delegate;
+        this.cost = cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = delegate.encode(rawPassword);
+        event.record(PasswordHashEvent.ENCODE, cost, false);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        event.record(PasswordHashEvent.MATCH, event.isEnabled() ? costOf(encodedPassword) : 0, matched);
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * {bcrypt}$2a$12$... 或不带前缀的 $2a$12$...，无法识别时返回 0
+     */
+    private static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return 0;
+        }
+        int start = encodedPassword.startsWith("{") ? encodedPassword.indexOf('}') + 1 : 0;
+        if (encodedPassword.length() < start + 7 || encodedPassword.charAt(start) != '$') {
+            return 0;
+        }
+        char tens = encodedPassword.charAt(start + 4);
+        char ones = encodedPassword.charAt(start + 5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return 0;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,14 @@
+-- V6__pooled_id_sequences.sql
+-- user-service 的实体改用 pooled 序列（allocationSize = 50）：每次 nextval 预分配 50 个 ID，插入可以按批提交。
+-- 序列步长与 allocationSize 一致；Hibernate 把 nextval 取到的值 N 当作上界，使用闭区间 [N - 49, N] 共 50 个 ID。
+-- 仍按列默认值（nextval）插入的写入方（user-service-reactive、原生 SQL）各自只占用取到的那一个值 N'，
+-- 每次 nextval 返回的值互不相同，且相邻两次相差 50，[N - 49, N] 中不会包含其他调用取到的值，两者不会冲突。
+-- setval 到现有最大 ID 之后，下一次分配的区间全部大于已有数据
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1);
+
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+SELECT setval('refresh_tokens_id_seq', COALESCE((SELECT MAX(id) FROM refresh_tokens), 0) + 1);
+
+ALTER SEQUENCE verification_codes_id_seq INCREMENT BY 50;
+SELECT setval('verification_codes_id_seq', COALESCE((SELECT MAX(id) FROM verification_codes), 0) + 1);
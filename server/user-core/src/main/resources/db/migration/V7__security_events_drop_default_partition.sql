@@ -0,0 +1,25 @@
+-- V7__security_events_drop_default_partition.sql
+-- 去掉 security_events 的 DEFAULT 分区：写入线程先于分区维护启动时，事件会落入 DEFAULT 分区，
+-- 之后同一天的分区无法创建，DEFAULT 分区中的数据也不会按保留天数删除。
+-- DEFAULT 分区中已有的数据移到按天分区，并创建今天和明天的分区；之后没有对应分区的事件写入失败，不再静默落入兜底分区
+ALTER TABLE security_events DETACH PARTITION security_events_default;
+
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN
+        SELECT DISTINCT occurred_at::date FROM security_events_default
+        UNION
+        SELECT CURRENT_DATE
+        UNION
+        SELECT CURRENT_DATE + 1
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF security_events FOR VALUES FROM (%L) TO (%L)',
+                       'security_events_' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO security_events SELECT * FROM security_events_default;
+
+DROP TABLE security_events_default;
@@ -0,0 +1,61 @@
+package com.appfactory.user.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌签发基准：jjwt builder 与 JwtMinter 对比（JMH）
+ *
+ *   mvn -pl user-core test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtMintBenchmark -prof gc"
+ *
+ * 单线程签发 access + refresh 令牌各一个为一次操作；每次操作的分配字节数见 -prof gc 的 gc.alloc.rate.norm。
+ * 两种实现的输出是否一致由 JwtUtil 构造时校验，这里另外确认签发的令牌能被解析
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtMintBenchmark {
+
+    private static final String SECRET = "your-secret-key-change-this-in-production-min-256-bits";
+    private static final long ACCESS_EXPIRATION = 3_600_000L;
+    private static final long REFRESH_EXPIRATION = 2_592_000_000L;
+    private static final String PHONE = "13800138000";
+
+    @Param({"jjwt", "minter"})
+    private String implementation;
+
+    private JwtUtil jwtUtil;
+    private long userId = 1_000_000L;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, ACCESS_EXPIRATION, REFRESH_EXPIRATION, "minter".equals(implementation));
+        String token = jwtUtil.generateAccessToken(42L, PHONE);
+        if (!jwtUtil.validateToken(token) || jwtUtil.getUserIdFromToken(token) != 42L) {
+            throw new IllegalStateException("Minted token rejected by parser: " + token);
+        }
+    }
+
+    @Benchmark
+    public void mint(Blackhole blackhole) {
+        long id = userId++;
+        blackhole.consume(jwtUtil.generateAccessToken(id, PHONE));
+        blackhole.consume(jwtUtil.generateRefreshToken(id));
+    }
+}
@@ -0,0 +1,93 @@
+package com.appfactory.user.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JwtMinter 与 jjwt（JwtUtil.buildAccessToken / buildRefreshToken）逐字节一致
+ */
+class JwtMinterTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-minter-comparison-0123456789";
+    private static final long ACCESS_EXPIRATION = 7_200_000L;
+    private static final long REFRESH_EXPIRATION = 604_800_000L;
+
+    private static final long[] USER_IDS = {0L, 1L, 42L, -1L, -42L, 1_234_567_890_123L, Long.MIN_VALUE, Long.MAX_VALUE};
+    private static final long[] NOW_MILLIS = {0L, 999L, 1_700_000_000_123L, 4_102_444_800_000L};
+
+    private final JwtUtil jjwt = new JwtUtil(SECRET, ACCESS_EXPIRATION, REFRESH_EXPIRATION, false);
+    private final JwtMinter minter = newMinter();
+
+    @Test
+    void accessTokenMatchesJjwt() {
+        Set<Integer> remainders = new HashSet<>();
+        for (long userId : USER_IDS) {
+            for (long now : NOW_MILLIS) {
+                // 不同长度的手机号让 payload 长度覆盖 Base64 的三种余数，长串超出初始缓冲
+                for (String phone : new String[]{"", "1", "13", "138", "13800138000", "+86 138-0013-8000",
+                        "x".repeat(300)}) {
+                    String expected = jjwt.buildAccessToken(userId, phone, now);
+                    String actual = minter.accessToken(userId, phone, now / 1000, (now + ACCESS_EXPIRATION) / 1000);
+                    assertThat(actual).as("userId=%d, now=%d, phone=%s", userId, now, phone).isEqualTo(expected);
+                    remainders.add(payloadLength(actual) % 3);
+                }
+            }
+        }
+        assertThat(remainders).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void refreshTokenMatchesJjwt() {
+        Set<Integer> remainders = new HashSet<>();
+        for (long userId : USER_IDS) {
+            for (long now : NOW_MILLIS) {
+                String expected = jjwt.buildRefreshToken(userId, now);
+                String actual = minter.refreshToken(userId, now / 1000, (now + REFRESH_EXPIRATION) / 1000);
+                assertThat(actual).as("userId=%d, now=%d", userId, now).isEqualTo(expected);
+                remainders.add(payloadLength(actual) % 3);
+            }
+        }
+        assertThat(remainders).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void phonesNeedingEscapesFallBackToJjwt() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, ACCESS_EXPIRATION, REFRESH_EXPIRATION);
+        for (String phone : new String[]{"138\"0013", "138\\0013", "138\n0013", "138\u00000013", "138\u007f0013",
+                "１３８００１３８０００", "138😀", null}) {
+            assertThat(JwtMinter.isPlainAscii(phone)).as("phone=%s", phone).isFalse();
+
+            Claims claims = jwtUtil.parseToken(jwtUtil.generateAccessToken(7L, phone));
+            assertThat(claims.get("phone", String.class)).isEqualTo(phone);
+            assertThat(claims.get("userId", Long.class)).isEqualTo(7L);
+        }
+    }
+
+    @Test
+    void plainAsciiPhonesTakeTheFastPath() {
+        for (String phone : new String[]{"", "13800138000", "+86 138-0013-8000", " ~"}) {
+            assertThat(JwtMinter.isPlainAscii(phone)).as("phone=%s", phone).isTrue();
+        }
+    }
+
+    private static int payloadLength(String token) {
+        String payload = token.substring(token.indexOf('.') + 1, token.lastIndexOf('.'));
+        return Base64.getUrlDecoder().decode(payload).length;
+    }
+
+    private static JwtMinter newMinter() {
+        try {
+            return new JwtMinter(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- V2__refresh_token_device_sessions.sql
+-- 刷新令牌按 (用户, 设备) 唯一，登录时 upsert，不再每次登录新增一行
+
+DELETE FROM refresh_tokens WHERE expires_at < CURRENT_TIMESTAMP;
+
+ALTER TABLE refresh_tokens ADD COLUMN device_id VARCHAR(64);
+ALTER TABLE refresh_tokens ADD COLUMN device_name VARCHAR(100);
+ALTER TABLE refresh_tokens ADD COLUMN last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- 历史数据：每行视为一个独立的旧设备
+UPDATE refresh_tokens SET device_id = 'legacy-' || id, last_used_at = created_at;
+
+ALTER TABLE refresh_tokens ALTER COLUMN device_id SET NOT NULL;
+
+-- (user_id, device_id) 唯一索引同时覆盖按 user_id 的查询
+DROP INDEX idx_refresh_tokens_user_id;
+CREATE UNIQUE INDEX uk_refresh_tokens_user_device ON refresh_tokens(user_id, device_id);
@@ -0,0 +1,17 @@
+-- V3__security_events.sql
+-- 登录/安全事件日志，按天分区
+-- 分区由 SecurityEventPartitionManager 提前创建，过期分区直接 DROP，不做 DELETE
+CREATE TABLE security_events (
+    event_type VARCHAR(30) NOT NULL,
+    user_id BIGINT,
+    phone VARCHAR(20),
+    ip VARCHAR(45),
+    detail VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL
+) PARTITION BY RANGE (occurred_at);
+
+-- 兜底分区，正常情况下不会有数据写入
+CREATE TABLE security_events_default PARTITION OF security_events DEFAULT;
+
+CREATE INDEX idx_security_events_user_id ON security_events(user_id, occurred_at);
+CREATE INDEX idx_security_events_phone ON security_events(phone, occurred_at);
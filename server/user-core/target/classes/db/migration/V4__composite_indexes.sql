@@ -0,0 +1,20 @@
+-- V4__composite_indexes.sql
+-- 按仓库查询调整索引，去掉与 UNIQUE 约束重复的索引
+
+-- users.phone 已有 UNIQUE 约束（users_phone_key），普通索引重复
+DROP INDEX IF EXISTS idx_users_phone;
+
+-- refresh_tokens.token 已有 UNIQUE 约束（refresh_tokens_token_key），普通索引重复
+DROP INDEX IF EXISTS idx_refresh_tokens_token;
+
+-- findByUserIdOrderByLastUsedAtDesc / upsertSession 淘汰最久未使用会话
+CREATE INDEX idx_refresh_tokens_user_last_used ON refresh_tokens(user_id, last_used_at DESC);
+
+-- findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc：等值过滤 + 有序取第一条，无需排序
+CREATE INDEX idx_verification_codes_unverified
+    ON verification_codes(phone, type, created_at DESC)
+    WHERE verified = FALSE;
+
+-- countByPhoneAndCreatedAtAfter：覆盖原 phone 单列索引
+CREATE INDEX idx_verification_codes_phone_created_at ON verification_codes(phone, created_at);
+DROP INDEX IF EXISTS idx_verification_codes_phone;
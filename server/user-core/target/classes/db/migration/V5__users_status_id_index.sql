@@ -0,0 +1,4 @@
+-- V5__users_status_id_index.sql
+-- 管理端用户列表按 id keyset 分页：status 过滤后按 id 顺序扫描，无需排序
+CREATE INDEX idx_users_status_id ON users(status, id);
+DROP INDEX IF EXISTS idx_users_status;
@@ -0,0 +1,4 @@
+package com.appfactory.user.util.jmh_generated;
+public class JwtMintBenchmark_jmhType extends JwtMintBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,22 @@
+package com.appfactory.user.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * User Service 响应式实现
+ *
+ * 与 user-service 提供相同的 /api/v1/auth/* 接口，基于 WebFlux + R2DBC + Reactive Redis，
+ * 部署时二选一（构建 user-service-reactive 镜像替换 user-service 即可）
+ */
+@SpringBootApplication(scanBasePackages = {
+        "com.appfactory.user.reactive",
+        "com.appfactory.user.util",
+        "com.appfactory.common"
+})
+public class ReactiveUserServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveUserServiceApplication.class, args);
+    }
+}
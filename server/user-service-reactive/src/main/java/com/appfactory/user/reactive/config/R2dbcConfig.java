@@ -0,0 +1,12 @@
+package com.appfactory.user.reactive.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+/**
+ * 启用审计，填充 created_at / updated_at
+ */
+@Configuration
+@EnableR2dbcAuditing
+public class R2dbcConfig {
+}
@@ -0,0 +1,37 @@
+package com.appfactory.user.reactive.config;
+
+import com.appfactory.common.dto.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux 下参数校验失败抛出 WebExchangeBindException，
+ * 转换成与 common 模块 GlobalExceptionHandler 相同的响应格式
+ */
+@Slf4j
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ValidationExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationException(WebExchangeBindException e) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError error : e.getFieldErrors()) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
+        log.debug("Validation error: {}", errors);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse<>(400, "Validation failed", errors));
+    }
+}
@@ -0,0 +1,72 @@
+package com.appfactory.user.reactive.controller;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.appfactory.user.dto.*;
+import com.appfactory.user.reactive.entity.VerificationCode;
+import com.appfactory.user.reactive.service.AuthService;
+import com.appfactory.user.reactive.service.LoginAttemptService;
+import com.appfactory.user.reactive.service.SmsService;
+import com.appfactory.user.reactive.util.RequestUtil;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final AuthService authService;
+    private final SmsService smsService;
+    private final LoginAttemptService loginAttemptService;
+
+    @PostMapping("/send-code")
+    public Mono<ApiResponse<SendCodeResponse>> sendCode(@Valid @RequestBody SendCodeRequest request) {
+        VerificationCode.CodeType type = VerificationCode.CodeType.valueOf(request.getType());
+        return smsService.sendVerificationCode(request.getPhone(), type)
+                .map(response -> ApiResponse.success(
+                        response.isSent() ? "验证码已发送" : "验证码已发送，请稍后再试", response));
+    }
+
+    @PostMapping("/register")
+    public Mono<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request).map(ApiResponse::success);
+    }
+
+    @PostMapping("/login")
+    public Mono<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                 ServerHttpRequest httpRequest) {
+        String ip = RequestUtil.clientIp(httpRequest);
+        // 失败次数过多时在进入事务前拒绝，不占用 R2DBC 连接，也不计算 BCrypt
+        return loginAttemptService.checkAllowed(request.getPhone(), ip)
+                .then(Mono.defer(() -> authService.login(request, ip)))
+                .map(ApiResponse::success);
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ApiResponse<AuthResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return authService.refreshToken(request.getRefreshToken()).map(ApiResponse::success);
+    }
+
+    @PostMapping("/logout")
+    public Mono<ApiResponse<Void>> logout(@RequestAttribute("userId") Long userId) {
+        return authService.logout(userId)
+                .then(Mono.fromSupplier(() -> ApiResponse.success("登出成功", null)));
+    }
+
+    @GetMapping("/sessions")
+    public Mono<ApiResponse<List<SessionInfo>>> listSessions(
+            @RequestAttribute("userId") Long userId,
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId) {
+        return authService.listSessions(userId, deviceId).map(ApiResponse::success);
+    }
+
+    @GetMapping("/me")
+    public Mono<ApiResponse<UserInfo>> getCurrentUser(@RequestAttribute("userId") Long userId) {
+        return authService.getCurrentUser(userId).map(ApiResponse::success);
+    }
+}
@@ -0,0 +1,46 @@
+package com.appfactory.user.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("refresh_tokens")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    private Long id;
+
+    @Column("user_id")
+    private Long userId;
+
+    @Column("device_id")
+    private String deviceId;
+
+    @Column("device_name")
+    private String deviceName;
+
+    private String token;
+
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
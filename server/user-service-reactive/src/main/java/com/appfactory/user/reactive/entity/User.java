@@ -0,0 +1,49 @@
+package com.appfactory.user.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("users")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+
+    @Id
+    private Long id;
+
+    private String phone;
+
+    @Column("password_hash")
+    private String passwordHash;
+
+    private String nickname;
+
+    @Column("avatar_url")
+    private String avatarUrl;
+
+    @Builder.Default
+    private UserStatus status = UserStatus.ACTIVE;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum UserStatus {
+        ACTIVE, INACTIVE, BANNED
+    }
+}
@@ -0,0 +1,47 @@
+package com.appfactory.user.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("verification_codes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VerificationCode {
+
+    @Id
+    private Long id;
+
+    private String phone;
+
+    private String code;
+
+    private CodeType type;
+
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
+    @Builder.Default
+    private Boolean verified = false;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    public enum CodeType {
+        REGISTER, LOGIN, RESET_PASSWORD
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,69 @@
+package com.appfactory.user.reactive.repository;
+
+import com.appfactory.user.reactive.entity.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, Long> {
+    Mono<RefreshToken> findByToken(String token);
+    Flux<RefreshToken> findByUserIdOrderByLastUsedAtDesc(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE user_id = :userId")
+    Mono<Integer> deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * 与 user-service 的 RefreshTokenRepository.rotateToken 相同：仅当会话仍持有提交上来的 token 时换成新 token，
+     * 并发刷新同一 token 时只有一个返回 1
+     */
+    @Modifying
+    @Query("UPDATE refresh_tokens SET token = :newToken, expires_at = :expiresAt, last_used_at = :now " +
+            "WHERE token = :oldToken")
+    Mono<Integer> rotateToken(@Param("oldToken") String oldToken,
+                              @Param("newToken") String newToken,
+                              @Param("expiresAt") LocalDateTime expiresAt,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * 与 user-service 的 RefreshTokenRepository.upsertSession 相同：
+     * 按 (user_id, device_id) upsert，并在同一语句中淘汰超出上限的最久未使用会话
+     */
+    @Query("""
+            WITH upserted AS (
+                INSERT INTO refresh_tokens (user_id, device_id, device_name, token, expires_at, created_at, last_used_at)
+                VALUES (:userId, :deviceId, :deviceName, :token, :expiresAt, :now, :now)
+                ON CONFLICT (user_id, device_id) DO UPDATE
+                    SET token = EXCLUDED.token,
+                        device_name = COALESCE(EXCLUDED.device_name, refresh_tokens.device_name),
+                        expires_at = EXCLUDED.expires_at,
+                        last_used_at = EXCLUDED.last_used_at
+                RETURNING id
+            ), evicted AS (
+                DELETE FROM refresh_tokens
+                WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE user_id = :userId
+                      AND id NOT IN (SELECT id FROM upserted)
+                    ORDER BY last_used_at DESC
+                    OFFSET GREATEST(:maxSessions - 1, 0)
+                )
+                RETURNING id
+            )
+            SELECT count(*) FROM evicted
+            """)
+    Mono<Long> upsertSession(@Param("userId") Long userId,
+                             @Param("deviceId") String deviceId,
+                             @Param("deviceName") String deviceName,
+                             @Param("token") String token,
+                             @Param("expiresAt") LocalDateTime expiresAt,
+                             @Param("now") LocalDateTime now,
+                             @Param("maxSessions") int maxSessions);
+}
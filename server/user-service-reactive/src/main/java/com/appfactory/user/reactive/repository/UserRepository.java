@@ -0,0 +1,12 @@
+package com.appfactory.user.reactive.repository;
+
+import com.appfactory.user.reactive.entity.User;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+    Mono<User> findByPhone(String phone);
+    Mono<Boolean> existsByPhone(String phone);
+}
@@ -0,0 +1,12 @@
+package com.appfactory.user.reactive.repository;
+
+import com.appfactory.user.reactive.entity.VerificationCode;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface VerificationCodeRepository extends ReactiveCrudRepository<VerificationCode, Long> {
+    Mono<VerificationCode> findFirstByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(
+            String phone, VerificationCode.CodeType type);
+}
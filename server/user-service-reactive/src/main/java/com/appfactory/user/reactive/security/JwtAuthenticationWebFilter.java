@@ -0,0 +1,84 @@
+package com.appfactory.user.reactive.security;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.appfactory.user.util.JwtUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * JWT 认证过滤器（响应式）
+ *
+ * 与 user-service 的 SecurityConfig 放行相同的接口（含 /actuator/health/**），其余接口要求有效的 access token，
+ * 并把 userId 写入 exchange 属性供 @RequestAttribute 使用
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private static final Set<String> PUBLIC_PATHS = Set.of(
+            "/api/v1/auth/register",
+            "/api/v1/auth/login",
+            "/api/v1/auth/send-code",
+            "/api/v1/auth/refresh"
+    );
+    // 健康检查及其分组（liveness / readiness），供 Dockerfile HEALTHCHECK 和编排探针使用
+    private static final String HEALTH_PATH = "/actuator/health";
+
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (PUBLIC_PATHS.contains(path) || isHealthPath(path)) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                if (jwtUtil.validateToken(token)) {
+                    exchange.getAttributes().put("userId", jwtUtil.getUserIdFromToken(token));
+                    return chain.filter(exchange);
+                }
+            } catch (Exception e) {
+                log.debug("JWT authentication failed: {}", e.getMessage());
+            }
+        }
+
+        return unauthorized(exchange.getResponse());
+    }
+
+    private static boolean isHealthPath(String path) {
+        return path.equals(HEALTH_PATH) || path.startsWith(HEALTH_PATH + "/");
+    }
+
+    private Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.error(401, "未认证"));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+    }
+}
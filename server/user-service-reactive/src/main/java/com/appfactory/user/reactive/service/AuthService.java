@@ -0,0 +1,228 @@
+package com.appfactory.user.reactive.service;
+
+import com.appfactory.common.exception.AppException;
+import com.appfactory.common.exception.AuthException;
+import com.appfactory.user.dto.*;
+import com.appfactory.user.reactive.entity.User;
+import com.appfactory.user.reactive.entity.VerificationCode;
+import com.appfactory.user.reactive.repository.RefreshTokenRepository;
+import com.appfactory.user.reactive.repository.UserRepository;
+import com.appfactory.user.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 认证业务逻辑（响应式），行为与 user-service 的 AuthService 保持一致
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SmsService smsService;
+    private final JwtUtil jwtUtil;
+    private final PasswordHasher passwordHasher;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginAttemptService loginAttemptService;
+    private final TransactionalOperator transactionalOperator;
+
+    @Value("${auth.session.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    @Transactional
+    public Mono<AuthResponse> register(RegisterRequest request) {
+        boolean hasPassword = request.getPassword() != null && !request.getPassword().isEmpty();
+        boolean hasCode = request.getVerificationCode() != null && !request.getVerificationCode().isEmpty();
+
+        return userRepository.existsByPhone(request.getPhone())
+                .flatMap(exists -> {
+                    // 检查手机号是否已注册
+                    if (exists) {
+                        return Mono.<Void>error(new AppException(400, "手机号已注册"));
+                    }
+                    // 验证码和密码至少提供一个
+                    if (!hasPassword && !hasCode) {
+                        return Mono.<Void>error(new AppException(400, "密码和验证码至少提供一个"));
+                    }
+                    if (!hasCode) {
+                        return Mono.<Void>empty();
+                    }
+                    return smsService.verifyCode(request.getPhone(), request.getVerificationCode(),
+                                    VerificationCode.CodeType.REGISTER)
+                            .flatMap(verified -> verified
+                                    ? Mono.<Void>empty()
+                                    : Mono.<Void>error(new AppException(400, "验证码无效或已过期")));
+                })
+                .then(request.getPassword() != null
+                        ? passwordHasher.encode(request.getPassword())
+                        : Mono.<String>empty())
+                .map(hash -> buildUser(request, hash))
+                .switchIfEmpty(Mono.fromSupplier(() -> buildUser(request, null)))
+                .flatMap(userRepository::save)
+                .flatMap(user -> generateAuthResponse(user, request.getDeviceId(), request.getDeviceName()));
+    }
+
+    /**
+     * 锁定检查（LoginAttemptService.checkAllowed）由调用方在事务外先做，被锁定的请求不会占用数据库连接
+     */
+    @Transactional
+    public Mono<AuthResponse> login(LoginRequest request, String ip) {
+        String phone = request.getPhone();
+        return userRepository.findByPhone(phone)
+                .switchIfEmpty(Mono.defer(() -> loginAttemptService.recordFailure(phone, ip)
+                        .then(Mono.<User>error(new AuthException("手机号或密码错误")))))
+                .flatMap(user -> {
+                    // 检查用户状态
+                    if (user.getStatus() != User.UserStatus.ACTIVE) {
+                        return Mono.<AuthResponse>error(new AuthException("账号已被禁用"));
+                    }
+                    return authenticate(user, request).flatMap(authenticated -> {
+                        if (!authenticated) {
+                            return loginAttemptService.recordFailure(phone, ip)
+                                    .then(Mono.<AuthResponse>error(new AuthException("手机号或密码/验证码错误")));
+                        }
+                        return loginAttemptService.reset(phone).then(Mono.defer(() ->
+                                generateAuthResponse(user, request.getDeviceId(), request.getDeviceName())));
+                    });
+                });
+    }
+
+    private Mono<Boolean> authenticate(User user, LoginRequest request) {
+        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
+            // 密码登录
+            if (user.getPasswordHash() == null) {
+                return Mono.error(new AuthException("该账号未设置密码，请使用验证码登录"));
+            }
+            return passwordHasher.matches(request.getPassword(), user.getPasswordHash());
+        }
+        if (request.getVerificationCode() != null && !request.getVerificationCode().isEmpty()) {
+            // 验证码登录
+            return smsService.verifyCode(request.getPhone(), request.getVerificationCode(),
+                    VerificationCode.CodeType.LOGIN);
+        }
+        return Mono.just(false);
+    }
+
+    @Transactional
+    public Mono<AuthResponse> refreshToken(String refreshTokenStr) {
+        // 验证 refresh token
+        if (!jwtUtil.validateToken(refreshTokenStr)) {
+            return Mono.error(new AuthException("刷新令牌无效"));
+        }
+
+        return refreshTokenRepository.findByToken(refreshTokenStr)
+                .switchIfEmpty(Mono.error(new AuthException("刷新令牌不存在")))
+                .flatMap(refreshToken -> {
+                    if (refreshToken.isExpired()) {
+                        return refreshTokenRepository.delete(refreshToken)
+                                .then(Mono.<AuthResponse>error(new AuthException("刷新令牌已过期")));
+                    }
+                    return userRepository.findById(refreshToken.getUserId())
+                            .switchIfEmpty(Mono.error(new AuthException("用户不存在")))
+                            .flatMap(user -> rotate(user, refreshTokenStr, refreshToken.getDeviceId()));
+                });
+    }
+
+    /**
+     * 同一设备的会话原地轮换：只有会话仍持有提交上来的 token 时才换成新 token，
+     * 并发刷新或重放同一 token 时后到的一方更新 0 行，不会再拿到一对有效令牌
+     */
+    private Mono<AuthResponse> rotate(User user, String oldToken, String deviceId) {
+        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getPhone());
+        String newToken = jwtUtil.generateRefreshToken(user.getId());
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.rotateToken(oldToken, newToken,
+                        now.plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000), now)
+                .flatMap(updated -> updated == 0
+                        ? Mono.<AuthResponse>error(new AuthException("刷新令牌已失效"))
+                        : Mono.just(buildAuthResponse(user, accessToken, newToken, deviceId)));
+    }
+
+    /**
+     * 吊销在事务提交后才广播，与 user-service 的 afterCommit 一致：事务回滚时已签发的 token 不会被吊销
+     */
+    public Mono<Void> logout(Long userId) {
+        return transactionalOperator.transactional(refreshTokenRepository.deleteByUserId(userId))
+                .then(tokenRevocationService.revokeUser(userId));
+    }
+
+    public Mono<UserInfo> getCurrentUser(Long userId) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(new AuthException("用户不存在")))
+                .map(this::mapToUserInfo);
+    }
+
+    public Mono<List<SessionInfo>> listSessions(Long userId, String currentDeviceId) {
+        return refreshTokenRepository.findByUserIdOrderByLastUsedAtDesc(userId)
+                .map(token -> SessionInfo.builder()
+                        .deviceId(token.getDeviceId())
+                        .deviceName(token.getDeviceName())
+                        .createdAt(token.getCreatedAt())
+                        .lastUsedAt(token.getLastUsedAt())
+                        .expiresAt(token.getExpiresAt())
+                        .current(token.getDeviceId().equals(currentDeviceId))
+                        .build())
+                .collectList();
+    }
+
+    private User buildUser(RegisterRequest request, String passwordHash) {
+        return User.builder()
+                .phone(request.getPhone())
+                .passwordHash(passwordHash)
+                .nickname(request.getNickname() != null ?
+                        request.getNickname() : "用户" + request.getPhone().substring(7))
+                .status(User.UserStatus.ACTIVE)
+                .build();
+    }
+
+    private Mono<AuthResponse> generateAuthResponse(User user, String deviceId, String deviceName) {
+        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getPhone());
+        String refreshTokenStr = jwtUtil.generateRefreshToken(user.getId());
+        String resolvedDeviceId = deviceId == null || deviceId.isEmpty()
+                ? UUID.randomUUID().toString()
+                : deviceId;
+
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.upsertSession(
+                        user.getId(),
+                        resolvedDeviceId,
+                        deviceName,
+                        refreshTokenStr,
+                        now.plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000),
+                        now,
+                        maxSessionsPerUser)
+                .map(evicted -> buildAuthResponse(user, accessToken, refreshTokenStr, resolvedDeviceId));
+    }
+
+    private AuthResponse buildAuthResponse(User user, String accessToken, String refreshToken, String deviceId) {
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtUtil.getAccessTokenExpiration() / 1000)
+                .deviceId(deviceId)
+                .user(mapToUserInfo(user))
+                .build();
+    }
+
+    private UserInfo mapToUserInfo(User user) {
+        return UserInfo.builder()
+                .id(user.getId())
+                .phone(user.getPhone())
+                .nickname(user.getNickname())
+                .avatarUrl(user.getAvatarUrl())
+                .status(user.getStatus().name())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.appfactory.user.reactive.service;
+
+import com.appfactory.user.util.PasswordEncoderFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * BCrypt 计算
+ *
+ * BCrypt 是纯 CPU 计算，不能在事件循环线程上执行。使用独立的有界调度器：
+ * 线程数默认等于 CPU 核数，排队超过上限时直接拒绝，避免登录洪峰拖垮其他请求。
+ * 编码器与 user-service 相同（PasswordEncoderFactory），两者写入的哈希可以互相校验
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler scheduler;
+
+    public PasswordHasher(PasswordEncoderFactory passwordEncoderFactory,
+                          @Value("${auth.bcrypt.threads:0}") int threads,
+                          @Value("${auth.bcrypt.queue-capacity:1000}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoderFactory.create();
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(size, queueCapacity, "bcrypt");
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword))
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword))
+                .subscribeOn(scheduler);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
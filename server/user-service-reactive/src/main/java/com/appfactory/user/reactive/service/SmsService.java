@@ -0,0 +1,157 @@
+package com.appfactory.user.reactive.service;
+
+import com.appfactory.common.exception.AppException;
+import com.appfactory.user.dto.SendCodeResponse;
+import com.appfactory.user.reactive.entity.VerificationCode;
+import com.appfactory.user.reactive.repository.VerificationCodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SmsService {
+
+    private final VerificationCodeRepository verificationCodeRepository;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    @Value("${sms.mock:true}")
+    private boolean mockMode;
+
+    @Value("${sms.cooldown-seconds:60}")
+    private long cooldownSeconds;
+
+    @Value("${sms.reuse-min-remaining-seconds:60}")
+    private long reuseMinRemainingSeconds;
+
+    private static final int CODE_LENGTH = 6;
+    private static final int CODE_EXPIRATION_MINUTES = 5;
+    private static final int MAX_SEND_PER_HOUR = 5;
+    private static final String RATE_LIMIT_KEY_PREFIX = "sms:rate:";
+    private static final int MAX_VERIFY_ATTEMPTS = 5;
+    private static final String VERIFY_ATTEMPTS_KEY_PREFIX = "sms:attempts:";
+    private static final String COOLDOWN_KEY_PREFIX = "sms:cooldown:";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 重发策略与 user-service 相同：
+     * - 冷却期内（sms.cooldown-seconds）直接返回剩余冷却时间，不写库、不发短信、不计入发送频率
+     * - 冷却期后，最近一条未使用的验证码剩余有效期不少于 sms.reuse-min-remaining-seconds 时重发原验证码，不写库
+     * - 否则生成新验证码
+     */
+    public Mono<SendCodeResponse> sendVerificationCode(String phone, VerificationCode.CodeType type) {
+        String cooldownKey = COOLDOWN_KEY_PREFIX + type.name() + ":" + phone;
+        return redisTemplate.opsForValue()
+                .setIfAbsent(cooldownKey, "1", Duration.ofSeconds(cooldownSeconds))
+                .flatMap(acquired -> {
+                    if (!Boolean.TRUE.equals(acquired)) {
+                        return remainingCooldown(cooldownKey).map(remaining -> SendCodeResponse.builder()
+                                .sent(false)
+                                .cooldownSeconds(remaining)
+                                .build());
+                    }
+                    return send(phone, type)
+                            // 未发送成功，不占用冷却期
+                            .onErrorResume(e -> redisTemplate.delete(cooldownKey).then(Mono.error(e)))
+                            .thenReturn(SendCodeResponse.builder()
+                                    .sent(true)
+                                    .cooldownSeconds(cooldownSeconds)
+                                    .build());
+                });
+    }
+
+    private Mono<Void> send(String phone, VerificationCode.CodeType type) {
+        return checkRateLimit(phone)
+                .then(reusableCode(phone, type))
+                .switchIfEmpty(Mono.defer(() -> {
+                    String code = generateCode();
+                    VerificationCode verificationCode = VerificationCode.builder()
+                            .phone(phone)
+                            .code(code)
+                            .type(type)
+                            .expiresAt(LocalDateTime.now().plusMinutes(CODE_EXPIRATION_MINUTES))
+                            .build();
+                    return verificationCodeRepository.save(verificationCode).thenReturn(code);
+                }))
+                .doOnNext(code -> {
+                    if (mockMode) {
+                        log.debug("【模拟短信】手机号: {}, 验证码: {}, 类型: {}", phone, code, type);
+                    } else {
+                        // TODO: 对接真实短信服务商 (阿里云、腾讯云等)
+                        log.info("Sending SMS to {} for type {}", phone, type);
+                    }
+                })
+                .then(incrementRateLimit(phone));
+    }
+
+    /**
+     * 可重发的原验证码：未使用、剩余有效期足够、未因错误次数过多作废
+     */
+    private Mono<String> reusableCode(String phone, VerificationCode.CodeType type) {
+        return verificationCodeRepository.findFirstByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(phone, type)
+                .filter(code -> LocalDateTime.now().plusSeconds(reuseMinRemainingSeconds).isBefore(code.getExpiresAt()))
+                .filterWhen(code -> redisTemplate.opsForValue().get(VERIFY_ATTEMPTS_KEY_PREFIX + code.getId())
+                        .map(attempts -> Long.parseLong(attempts) < MAX_VERIFY_ATTEMPTS)
+                        .defaultIfEmpty(true))
+                .map(VerificationCode::getCode);
+    }
+
+    private Mono<Long> remainingCooldown(String cooldownKey) {
+        return redisTemplate.getExpire(cooldownKey)
+                .map(Duration::getSeconds)
+                .filter(seconds -> seconds > 0)
+                .defaultIfEmpty(1L);
+    }
+
+    public Mono<Boolean> verifyCode(String phone, String code, VerificationCode.CodeType type) {
+        return verificationCodeRepository
+                .findFirstByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(phone, type)
+                .filter(verificationCode -> !verificationCode.isExpired())
+                // 每次校验先原子地占用一次尝试机会再比对，并发猜测也不会超过上限；达到上限的验证码作废，需重新发送
+                .filterWhen(verificationCode -> claimAttempt(VERIFY_ATTEMPTS_KEY_PREFIX + verificationCode.getId())
+                        .map(attempts -> attempts <= MAX_VERIFY_ATTEMPTS))
+                .filter(verificationCode -> verificationCode.getCode().equals(code))
+                .flatMap(verificationCode -> {
+                    verificationCode.setVerified(true);
+                    return verificationCodeRepository.save(verificationCode).thenReturn(true);
+                })
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Long> claimAttempt(String attemptsKey) {
+        return redisTemplate.opsForValue().increment(attemptsKey)
+                .flatMap(count -> count == 1
+                        ? redisTemplate.expire(attemptsKey, Duration.ofMinutes(CODE_EXPIRATION_MINUTES)).thenReturn(count)
+                        : Mono.just(count));
+    }
+
+    private Mono<Void> checkRateLimit(String phone) {
+        return redisTemplate.opsForValue().get(RATE_LIMIT_KEY_PREFIX + phone)
+                .filter(count -> Integer.parseInt(count) >= MAX_SEND_PER_HOUR)
+                .flatMap(count -> Mono.<Void>error(new AppException(429, "发送验证码过于频繁，请稍后再试")));
+    }
+
+    private Mono<Void> incrementRateLimit(String phone) {
+        String key = RATE_LIMIT_KEY_PREFIX + phone;
+        return redisTemplate.opsForValue().increment(key)
+                .flatMap(count -> count == 1
+                        ? redisTemplate.expire(key, Duration.ofHours(1)).then()
+                        : Mono.empty());
+    }
+
+    private String generateCode() {
+        StringBuilder code = new StringBuilder(CODE_LENGTH);
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code.append(RANDOM.nextInt(10));
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.appfactory.user.reactive.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Access Token 吊销广播，格式与 user-service 的 TokenRevocationService 一致
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final String REVOCATION_CHANNEL = "auth:revocations";
+    private static final String REVOCATION_SNAPSHOT_KEY = "auth:revocations:snapshot";
+    private static final String REVOCATION_CUTOFFS_KEY = "auth:revocations:cutoffs";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    /**
+     * 吊销用户此刻之前签发的所有 access token。返回的 Mono 订阅时立即写入并广播，不参与事务：
+     * 伴随数据库变更时，调用方应在事务完成之后再订阅（见 AuthService.logout）
+     */
+    public Mono<Void> revokeUser(Long userId) {
+        long cutoff = System.currentTimeMillis() / 1000;
+        long expiresAt = cutoff + accessTokenExpiration / 1000;
+        String entry = userId + ":" + cutoff + ":" + expiresAt;
+        return redisTemplate.opsForZSet().add(REVOCATION_SNAPSHOT_KEY, entry, expiresAt)
+                .then(redisTemplate.opsForZSet().removeRangeByScore(
+                        REVOCATION_SNAPSHOT_KEY, Range.closed(0d, (double) cutoff)))
+                .then(redisTemplate.opsForZSet().add(REVOCATION_CUTOFFS_KEY, userId.toString(), cutoff))
+                .then(redisTemplate.opsForZSet().removeRangeByScore(REVOCATION_CUTOFFS_KEY,
+                        Range.closed(0d, (double) (cutoff - accessTokenExpiration / 1000))))
+                .then(redisTemplate.convertAndSend(REVOCATION_CHANNEL, entry))
+                .doOnError(e -> log.error("Failed to publish token revocation for user {}", userId, e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,42 @@
+package com.appfactory.user.reactive.util;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+public final class RequestUtil {
+
+    private static final String CLIENT_IP_HEADER = "X-Client-IP";
+
+    private RequestUtil() {
+    }
+
+    /**
+     * 客户端 IP，取不到时返回 null
+     *
+     * 与 user-service 默认的 RemoteIpValve 配置一致：连接对端是内网或本机地址（Gateway）时采用 Gateway 写入的
+     * X-Client-IP，否则使用对端地址。客户端自带的 X-Forwarded-For 不参与判断
+     */
+    public static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            return null;
+        }
+        InetAddress peer = remote.getAddress();
+        String forwarded = request.getHeaders().getFirst(CLIENT_IP_HEADER);
+        if (forwarded != null && !forwarded.isBlank() && isInternal(peer)) {
+            return forwarded.trim();
+        }
+        return peer.getHostAddress();
+    }
+
+    private static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()) {
+            return true;
+        }
+        // IPv6 唯一本地地址 fc00::/7
+        byte[] bytes = address.getAddress();
+        return bytes.length == 16 && (bytes[0] & 0xfe) == 0xfc;
+    }
+}
@@ -0,0 +1,100 @@
+package com.appfactory.user.config;
+
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadPool;
+import com.appfactory.user.datasource.WorkloadPoolInterceptor;
+import com.appfactory.user.datasource.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 按负载类型隔离的连接池
+ *
+ * 连接地址和 spring.datasource.hikari.* 为各池共用，db.pools.{interactive,background,reporting,session}.*
+ * 覆盖各池的大小和取连接超时。应用使用的 DataSource 是按 WorkloadContext 路由的代理：
+ * 后台任务占满 background 池时只会在自己的池内排队，不影响登录等请求。
+ * 每个池的等待时间见 hikaricp.connections.acquire{pool=...}，排队数见 hikaricp.connections.pending
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties, Environment environment) {
+        return createPool(properties, environment, Workload.INTERACTIVE);
+    }
+
+    @Bean
+    public HikariDataSource backgroundDataSource(DataSourceProperties properties, Environment environment) {
+        return createPool(properties, environment, Workload.BACKGROUND);
+    }
+
+    @Bean
+    public HikariDataSource reportingDataSource(DataSourceProperties properties, Environment environment) {
+        return createPool(properties, environment, Workload.REPORTING);
+    }
+
+    @Bean
+    public HikariDataSource sessionDataSource(DataSourceProperties properties, Environment environment) {
+        return createPool(properties, environment, Workload.SESSION);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactiveDataSource") DataSource interactive,
+                                 @Qualifier("backgroundDataSource") DataSource background,
+                                 @Qualifier("reportingDataSource") DataSource reporting,
+                                 @Qualifier("sessionDataSource") DataSource session) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                Workload.INTERACTIVE, interactive,
+                Workload.BACKGROUND, background,
+                Workload.REPORTING, reporting,
+                Workload.SESSION, session));
+        routing.setDefaultTargetDataSource(interactive);
+        routing.setLenientFallback(false);
+        return routing;
+    }
+
+    /**
+     * 先于事务拦截器执行，事务开始取连接时 WorkloadContext 已经设置
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadPoolAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(WorkloadPool.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(WorkloadPool.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadPoolInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                               Workload workload) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        String name = workload.name().toLowerCase();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        binder.bind("db.pools." + name, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
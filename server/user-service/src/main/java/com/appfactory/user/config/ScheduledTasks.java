@@ -1,5 +1,7 @@
 package com.appfactory.user.config;
 
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadPool;
 import com.appfactory.user.service.AuthService;
 import com.appfactory.user.service.SmsService;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@WorkloadPool(Workload.BACKGROUND)
 public class ScheduledTasks {
 
     private final AuthService authService;
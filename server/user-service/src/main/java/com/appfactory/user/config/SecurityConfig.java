@@ -1,14 +1,18 @@
 package com.appfactory.user.config;
 
+import com.appfactory.user.security.ApiTokenFilter;
 import com.appfactory.user.security.JwtAuthenticationFilter;
+import com.appfactory.user.security.ObservedPasswordEncoder;
+import com.appfactory.user.util.PasswordEncoderFactory;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,8 +24,19 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${admin.api-token:}")
+    private String adminApiToken;
+
+    @Value("${internal.api-token:}")
+    private String internalApiToken;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        ApiTokenFilter adminTokenFilter = new ApiTokenFilter(
+                "/api/v1/admin/", "X-Admin-Token", adminApiToken, "admin", "ROLE_ADMIN");
+        ApiTokenFilter internalTokenFilter = new ApiTokenFilter(
+                "/api/v1/internal/", "X-Internal-Token", internalApiToken, "internal", "ROLE_INTERNAL");
+
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session ->
@@ -34,17 +49,23 @@ public class SecurityConfig {
                                 "/api/v1/auth/refresh",
                                 "/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html"
+                                "/swagger-ui.html",
+                                "/actuator/health/**"
                         ).permitAll()
+                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/v1/internal/**").hasRole("INTERNAL")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(adminTokenFilter, JwtAuthenticationFilter.class)
+                .addFilterBefore(internalTokenFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordEncoderFactory passwordEncoderFactory,
+                                           ObservationRegistry observationRegistry) {
+        return new ObservedPasswordEncoder(passwordEncoderFactory.create(), observationRegistry);
     }
 }
@@ -0,0 +1,161 @@
+package com.appfactory.user.config;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.appfactory.user.dto.AuthResponse;
+import com.appfactory.user.dto.LoginRequest;
+import com.appfactory.user.dto.UserInfo;
+import com.appfactory.user.entity.VerificationCode;
+import com.appfactory.user.repository.RefreshTokenRepository;
+import com.appfactory.user.repository.UserRepository;
+import com.appfactory.user.repository.VerificationCodeRepository;
+import com.appfactory.user.util.JwtUtil;
+import com.appfactory.warmup.WarmupWorkload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 启动预热负载（见 warmup 模块的 WarmupRunner）
+ *
+ * 预热使用不存在的用户 ID（负数）和不存在的手机号，只读不写，不会产生业务数据或安全事件
+ */
+@Configuration
+public class WarmupConfig {
+
+    private static final String PROBE_PHONE = "00000000000";
+
+    /**
+     * 回环预热请求带 X-Warmup 头，值为本进程启动时随机生成的令牌，外部请求无法伪造
+     */
+    private static final String WARMUP_HEADER = "X-Warmup";
+    private static final String WARMUP_TOKEN = newToken();
+
+    @Bean
+    public WarmupWorkload jwtWarmup(JwtUtil jwtUtil) {
+        return WarmupWorkload.of("jwt", iteration -> {
+            long userId = -1L - iteration;
+            String accessToken = jwtUtil.generateAccessToken(userId, PROBE_PHONE);
+            jwtUtil.generateRefreshToken(userId);
+            if (jwtUtil.validateToken(accessToken)) {
+                jwtUtil.getUserIdFromToken(accessToken);
+            }
+        });
+    }
+
+    @Bean
+    public WarmupWorkload jsonWarmup(ObjectMapper objectMapper) {
+        return WarmupWorkload.of("json", iteration -> {
+            AuthResponse response = AuthResponse.builder()
+                    .accessToken("access-" + iteration)
+                    .refreshToken("refresh-" + iteration)
+                    .expiresIn(3600L)
+                    .deviceId("warmup")
+                    .user(UserInfo.builder()
+                            .id(-1L - iteration)
+                            .phone(PROBE_PHONE)
+                            .nickname("warmup")
+                            .status("ACTIVE")
+                            .createdAt(LocalDateTime.now())
+                            .build())
+                    .build();
+            objectMapper.writeValueAsBytes(ApiResponse.success(response));
+            objectMapper.readValue("{\"phone\":\"" + PROBE_PHONE + "\",\"password\":\"warmup-" + iteration + "\"}",
+                    LoginRequest.class);
+        });
+    }
+
+    /**
+     * 仓库查询在只读事务中执行，查询条件都不会命中数据
+     */
+    @Bean
+    public WarmupWorkload repositoryWarmup(PlatformTransactionManager transactionManager,
+                                           UserRepository userRepository,
+                                           RefreshTokenRepository refreshTokenRepository,
+                                           VerificationCodeRepository verificationCodeRepository) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return WarmupWorkload.of("repository", iteration -> readOnly.executeWithoutResult(status -> {
+            userRepository.findByPhone(PROBE_PHONE);
+            userRepository.existsByPhone(PROBE_PHONE);
+            userRepository.findById(-1L - iteration);
+            refreshTokenRepository.findByToken("warmup-" + iteration);
+            refreshTokenRepository.findByUserIdOrderByLastUsedAtDesc(-1L - iteration);
+            verificationCodeRepository.findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(
+                    PROBE_PHONE, VerificationCode.CodeType.LOGIN);
+            verificationCodeRepository.countByPhoneAndCreatedAtAfter(PROBE_PHONE, LocalDateTime.now().minusHours(1));
+        }));
+    }
+
+    /**
+     * 经本地回环请求 /api/v1/auth/sessions：Security 过滤器链、JWT 过滤器、控制器、查询和响应序列化
+     */
+    @Bean
+    public WarmupWorkload filterChainWarmup(JwtUtil jwtUtil, Environment environment) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        return WarmupWorkload.of("filter-chain", iteration -> {
+            String token = jwtUtil.generateAccessToken(-1L - iteration, PROBE_PHONE);
+            String port = environment.getProperty("local.server.port", "8081");
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/auth/sessions"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("X-Device-Id", "warmup")
+                    .header(WARMUP_HEADER, WARMUP_TOKEN)
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected warm-up response status " + response.statusCode());
+            }
+        });
+    }
+
+    /**
+     * 预热请求不产生 http.server.requests 指标和 span（与网关一致）
+     *
+     * 观测过滤器先于 RequestContextFilter 执行，http.server.requests 直接检查请求头；
+     * 请求内的 JDBC、Redis、密码哈希等子观测从 RequestContextHolder 取当前请求，
+     * 父观测被跳过后不跳过它们，会各自成为新的 trace 根
+     */
+    @Bean
+    public ObservationPredicate warmupObservationPredicate() {
+        return (name, context) -> !isWarmup(context);
+    }
+
+    private static boolean isWarmup(Observation.Context context) {
+        if (context instanceof ServerRequestObservationContext serverContext) {
+            return isWarmup(serverContext.getCarrier());
+        }
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && isWarmup(attributes.getRequest());
+    }
+
+    private static boolean isWarmup(HttpServletRequest request) {
+        return WARMUP_TOKEN.equals(request.getHeader(WARMUP_HEADER));
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,75 @@
+package com.appfactory.user.controller;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.appfactory.common.exception.AppException;
+import com.appfactory.user.dto.UserPage;
+import com.appfactory.user.entity.User;
+import com.appfactory.user.service.AdminUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理端用户接口，需携带 X-Admin-Token（见 SecurityConfig 中的 ApiTokenFilter），不经 Gateway 对外暴露
+ */
+@Tag(name = "用户管理", description = "管理端用户列表与导出")
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final AdminUserService adminUserService;
+
+    @Operation(summary = "用户列表（keyset 分页，X-Total-Count 为估计值）")
+    @GetMapping
+    public ResponseEntity<ApiResponse<UserPage>> list(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new AppException(400, "size 取值范围为 1-" + MAX_PAGE_SIZE);
+        }
+        AdminUserService.Filter filter = toFilter(status, createdFrom, createdTo);
+        UserPage page = adminUserService.list(filter, cursor, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(adminUserService.estimateCount(filter)))
+                .header("X-Page-Size", String.valueOf(size))
+                .body(ApiResponse.success(page));
+    }
+
+    @Operation(summary = "导出用户（NDJSON 流）")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        AdminUserService.Filter filter = toFilter(status, createdFrom, createdTo);
+        StreamingResponseBody body = out -> adminUserService.export(filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header("Content-Disposition", "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
+    private AdminUserService.Filter toFilter(String status, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        if (status != null) {
+            try {
+                status = User.UserStatus.valueOf(status.toUpperCase()).name();
+            } catch (IllegalArgumentException e) {
+                throw new AppException(400, "未知的用户状态: " + status);
+            }
+        }
+        return new AdminUserService.Filter(status, createdFrom, createdTo);
+    }
+}
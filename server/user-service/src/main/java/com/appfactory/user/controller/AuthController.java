@@ -4,13 +4,17 @@ import com.appfactory.common.dto.ApiResponse;
 import com.appfactory.user.dto.*;
 import com.appfactory.user.entity.VerificationCode;
 import com.appfactory.user.service.AuthService;
+import com.appfactory.user.service.LoginAttemptService;
 import com.appfactory.user.service.SmsService;
+import com.appfactory.user.util.RequestUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Tag(name = "认证接口", description = "用户注册、登录、登出等认证相关接口")
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -19,13 +23,14 @@ public class AuthController {
 
     private final AuthService authService;
     private final SmsService smsService;
+    private final LoginAttemptService loginAttemptService;
 
     @Operation(summary = "发送验证码")
     @PostMapping("/send-code")
-    public ApiResponse<Void> sendCode(@Valid @RequestBody SendCodeRequest request) {
+    public ApiResponse<SendCodeResponse> sendCode(@Valid @RequestBody SendCodeRequest request) {
         VerificationCode.CodeType type = VerificationCode.CodeType.valueOf(request.getType());
-        smsService.sendVerificationCode(request.getPhone(), type);
-        return ApiResponse.success("验证码已发送", null);
+        SendCodeResponse response = smsService.sendVerificationCode(request.getPhone(), type);
+        return ApiResponse.success(response.isSent() ? "验证码已发送" : "验证码已发送，请稍后再试", response);
     }
 
     @Operation(summary = "用户注册")
@@ -38,6 +43,8 @@ public class AuthController {
     @Operation(summary = "用户登录")
     @PostMapping("/login")
     public ApiResponse<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+        // 失败次数过多时在进入事务前拒绝，不占用数据库连接，也不计算 BCrypt
+        loginAttemptService.checkAllowed(request.getPhone(), RequestUtil.clientIp());
         AuthResponse response = authService.login(request);
         return ApiResponse.success(response);
     }
@@ -56,6 +63,14 @@ public class AuthController {
         return ApiResponse.success("登出成功", null);
     }
 
+    @Operation(summary = "获取当前用户的登录会话")
+    @GetMapping("/sessions")
+    public ApiResponse<List<SessionInfo>> listSessions(
+            @RequestAttribute("userId") Long userId,
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId) {
+        return ApiResponse.success(authService.listSessions(userId, deviceId));
+    }
+
     @Operation(summary = "获取当前用户信息")
     @GetMapping("/me")
     public ApiResponse<UserInfo> getCurrentUser(@RequestAttribute("userId") Long userId) {
@@ -0,0 +1,50 @@
+package com.appfactory.user.controller;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.appfactory.common.exception.AppException;
+import com.appfactory.user.dto.BatchIntrospectRequest;
+import com.appfactory.user.dto.BatchUserRequest;
+import com.appfactory.user.dto.TokenIntrospection;
+import com.appfactory.user.dto.UserInfo;
+import com.appfactory.user.service.InternalUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 内部服务批量接口，需携带 X-Internal-Token（见 SecurityConfig 中的 ApiTokenFilter），不经 Gateway 对外暴露
+ */
+@Tag(name = "内部接口", description = "供内部服务使用的批量令牌校验与用户查询")
+@RestController
+@RequestMapping("/api/v1/internal")
+@RequiredArgsConstructor
+public class InternalController {
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final InternalUserService internalUserService;
+
+    @Operation(summary = "批量校验访问令牌（结果与请求顺序一致）")
+    @PostMapping("/tokens/introspect")
+    public ApiResponse<List<TokenIntrospection>> introspect(@Valid @RequestBody BatchIntrospectRequest request) {
+        checkBatchSize(request.getTokens().size());
+        return ApiResponse.success(internalUserService.introspect(request.getTokens()));
+    }
+
+    @Operation(summary = "按 ID 批量查询用户（不存在的 ID 不返回）")
+    @PostMapping("/users/batch")
+    public ApiResponse<List<UserInfo>> findUsers(@Valid @RequestBody BatchUserRequest request) {
+        checkBatchSize(request.getIds().size());
+        return ApiResponse.success(internalUserService.findUsers(request.getIds()));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new AppException(400, "单次最多 " + MAX_BATCH_SIZE + " 条");
+        }
+    }
+}
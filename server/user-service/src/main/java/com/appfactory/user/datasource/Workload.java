@@ -0,0 +1,27 @@
+package com.appfactory.user.datasource;
+
+/**
+ * 数据库连接池的负载类型，每种类型对应一个独立的 Hikari 连接池
+ */
+public enum Workload {
+
+    /**
+     * 用户请求（登录、刷新、注册等），默认类型
+     */
+    INTERACTIVE,
+
+    /**
+     * 定时清理、异步写入等后台任务
+     */
+    BACKGROUND,
+
+    /**
+     * 管理端列表、导出等长查询
+     */
+    REPORTING,
+
+    /**
+     * 刷新令牌会话的合并写入线程（见 SessionWriter）
+     */
+    SESSION
+}
@@ -0,0 +1,54 @@
+package com.appfactory.user.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的负载类型，未设置时为 INTERACTIVE
+ *
+ * 自行管理线程的组件（如后台写入线程）无法使用 @WorkloadPool 时，用 run / call 指定连接池
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : Workload.INTERACTIVE;
+    }
+
+    public static void run(Workload workload, Runnable task) {
+        call(workload, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(Workload workload, Supplier<T> task) {
+        Workload previous = enter(workload);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 设置当前线程的类型，返回原值（可能为 null），调用方负责在 finally 中 restore
+     */
+    static Workload enter(Workload workload) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(Workload previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
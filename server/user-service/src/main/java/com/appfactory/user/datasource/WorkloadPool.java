@@ -0,0 +1,21 @@
+package com.appfactory.user.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定方法（或类中所有方法）使用的连接池
+ *
+ * 只对通过 Spring 代理的调用生效，且必须在事务开始之前生效：
+ * 已经处于事务中时连接已经取得，调用不会切换连接池
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WorkloadPool {
+
+    Workload value();
+}
@@ -0,0 +1,37 @@
+package com.appfactory.user.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 在调用期间把 @WorkloadPool 指定的类型写入 WorkloadContext，方法上的注解优先于类上的注解
+ */
+public class WorkloadPoolInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        WorkloadPool pool = findAnnotation(invocation);
+        if (pool == null) {
+            return invocation.proceed();
+        }
+        Workload previous = WorkloadContext.enter(pool.value());
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private static WorkloadPool findAnnotation(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        WorkloadPool pool = AnnotatedElementUtils.findMergedAnnotation(method, WorkloadPool.class);
+        return pool != null ? pool : AnnotatedElementUtils.findMergedAnnotation(targetClass, WorkloadPool.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.appfactory.user.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 按 WorkloadContext 在取连接时选择连接池
+ *
+ * JPA / JdbcTemplate 的事务在开始时取连接，因此同一事务内的所有语句都使用同一个连接池
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+}
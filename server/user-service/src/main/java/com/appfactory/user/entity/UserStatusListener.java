@@ -0,0 +1,32 @@
+package com.appfactory.user.entity;
+
+import com.appfactory.user.service.TokenRevocationService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户状态变更监听
+ *
+ * 状态从 ACTIVE 变为禁用时吊销该用户已签发的 access token
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusListener {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    @PostLoad
+    public void rememberStatus(User user) {
+        user.setLoadedStatus(user.getStatus());
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        if (user.getLoadedStatus() != user.getStatus() && user.getStatus() != User.UserStatus.ACTIVE) {
+            tokenRevocationService.revokeUser(user.getId());
+        }
+        user.setLoadedStatus(user.getStatus());
+    }
+}
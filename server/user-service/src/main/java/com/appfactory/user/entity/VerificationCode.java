@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class VerificationCode {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "verification_codes_id_seq")
+    @SequenceGenerator(name = "verification_codes_id_seq", sequenceName = "verification_codes_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 20)
@@ -0,0 +1,45 @@
+package com.appfactory.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecurityEvent {
+    private EventType type;
+    private Long userId;
+    private String phone;
+    private String ip;
+    private String detail;
+    private LocalDateTime occurredAt;
+
+    public enum EventType {
+        REGISTER(true),
+        LOGIN_SUCCESS(true),
+        LOGIN_FAILURE(false),
+        REFRESH(true),
+        LOGOUT(true),
+        CODE_SENT(true),
+        CODE_VERIFY_FAILURE(false);
+
+        private final boolean stateChange;
+
+        EventType(boolean stateChange) {
+            this.stateChange = stateChange;
+        }
+
+        /**
+         * 状态变更类事件在事务提交后才记录，事务回滚时不记录；
+         * 失败类事件随后通常伴随异常和回滚，立即记录
+         */
+        public boolean isStateChange() {
+            return stateChange;
+        }
+    }
+}
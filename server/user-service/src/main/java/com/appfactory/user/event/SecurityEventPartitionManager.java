@@ -0,0 +1,82 @@
+package com.appfactory.user.event;
+
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * security_events 按天分区维护
+ *
+ * - 提前创建未来几天的分区；没有 DEFAULT 分区，缺少当天分区时写入会失败，因此创建失败直接抛出
+ * - 启动时由 SecurityEventWriter 在开始写入前调用一次，之后每天执行
+ * - 超过保留天数的分区直接 DROP，避免大批量 DELETE 产生的膨胀和 WAL
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@WorkloadPool(Workload.BACKGROUND)
+public class SecurityEventPartitionManager {
+
+    private static final String PARTITION_PREFIX = "security_events_";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${security-events.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${security-events.precreate-days:3}")
+    private int precreateDays;
+
+    @Scheduled(cron = "0 5 0 * * *") // 每天 00:05 执行
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= precreateDays; i++) {
+            createPartition(today.plusDays(i));
+        }
+        dropExpiredPartitions(today.minusDays(retentionDays));
+    }
+
+    private void createPartition(LocalDate day) {
+        String name = PARTITION_PREFIX + day.format(SUFFIX_FORMAT);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                    + " PARTITION OF security_events FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Failed to create security event partition " + name, e);
+        }
+    }
+
+    private void dropExpiredPartitions(LocalDate cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'security_events'
+                """, String.class);
+
+        for (String name : partitions) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(name.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+            } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+                continue; // 非日期命名的分区
+            }
+            if (day.isBefore(cutoff)) {
+                log.info("Dropping expired security event partition {}", name);
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.appfactory.user.event;
+
+import com.appfactory.user.util.RequestUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 安全事件记录入口
+ *
+ * 请求线程只做一次无锁入队，由 SecurityEventWriter 在后台批量落库。
+ * 缓冲区满时直接丢弃并计数，不阻塞请求。
+ * 状态变更类事件（注册、登录成功等）在当前事务提交后才入队，IP 和时间仍在调用时取得
+ */
+@Component
+public class SecurityEventRecorder {
+
+    private final Queue<SecurityEvent> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Value("${security-events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security-events.buffer-capacity:10000}")
+    private int capacity;
+
+    public void record(SecurityEvent.EventType type, Long userId, String phone, String detail) {
+        if (!enabled) {
+            return;
+        }
+        SecurityEvent event = SecurityEvent.builder()
+                .type(type)
+                .userId(userId)
+                .phone(phone)
+                .ip(RequestUtil.clientIp())
+                .detail(detail)
+                .occurredAt(LocalDateTime.now())
+                .build();
+        if (type.isStateChange() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+            return;
+        }
+        enqueue(event);
+    }
+
+    public void record(SecurityEvent.EventType type, Long userId, String phone) {
+        record(type, userId, phone, null);
+    }
+
+    private void enqueue(SecurityEvent event) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        buffer.offer(event);
+    }
+
+    /**
+     * 取出最多 max 条事件，供后台写入线程调用
+     */
+    int drainTo(List<SecurityEvent> target, int max) {
+        int drained = 0;
+        SecurityEvent event;
+        while (drained < max && (event = buffer.poll()) != null) {
+            target.add(event);
+            drained++;
+        }
+        size.addAndGet(-drained);
+        return drained;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,117 @@
+package com.appfactory.user.event;
+
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 安全事件后台写入
+ *
+ * 单线程定期从 SecurityEventRecorder 取出事件，按批拼成一条多行 INSERT 写入 security_events。
+ * 开始写入前先建好当天及之后几天的分区，分区创建失败时启动失败
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecurityEventWriter {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO security_events (event_type, user_id, phone, ip, detail, occurred_at) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 6;
+
+    private final SecurityEventRecorder recorder;
+    private final SecurityEventPartitionManager partitionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${security-events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${security-events.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private ScheduledExecutorService executor;
+    private String fullBatchSql;
+    private long reportedDropped;
+
+    @PostConstruct
+    public void start() {
+        partitionManager.maintainPartitions();
+        fullBatchSql = buildInsertSql(batchSize);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "security-event-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        // 关闭前把剩余事件写完
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            WorkloadContext.run(Workload.BACKGROUND, this::flush);
+        } catch (Exception e) {
+            log.error("Failed to write security events", e);
+        }
+        long dropped = recorder.getDroppedCount();
+        if (dropped > reportedDropped) {
+            log.warn("Security event buffer full, dropped {} events (total {})", dropped - reportedDropped, dropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    private void flush() {
+        List<SecurityEvent> batch = new ArrayList<>(batchSize);
+        while (recorder.drainTo(batch, batchSize) > 0) {
+            String sql = batch.size() == batchSize ? fullBatchSql : buildInsertSql(batch.size());
+            jdbcTemplate.update(sql, toArgs(batch));
+            batch.clear();
+        }
+    }
+
+    private Object[] toArgs(List<SecurityEvent> batch) {
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (SecurityEvent event : batch) {
+            args[i++] = event.getType().name();
+            args[i++] = event.getUserId();
+            args[i++] = event.getPhone();
+            args[i++] = event.getIp();
+            args[i++] = event.getDetail();
+            args[i++] = Timestamp.valueOf(event.getOccurredAt());
+        }
+        return args;
+    }
+
+    private static String buildInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+}
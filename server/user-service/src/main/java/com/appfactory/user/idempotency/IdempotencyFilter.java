@@ -0,0 +1,361 @@
+package com.appfactory.user.idempotency;
+
+import com.appfactory.common.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Idempotency-Key 支持（注册、登录、发送验证码）
+ *
+ * - 首个请求用 SET NX 占位，处理完成后把响应（状态码 + ApiResponse JSON）写入 Redis，TTL 内重复请求直接回放
+ * - 相同 key 的请求仍在处理中时，重复请求等待其完成后回放，不会再次执行；
+ *   同一实例内通过本地 Future 等待，跨实例时轮询 Redis
+ * - 相同 key 但请求体不同返回 422；5xx 或异常不缓存，删除占位后允许重试
+ * - key 按接口路径和 X-Device-Id 隔离，Redis 中只保存哈希后的 key；
+ *   缓存的响应体（含 Token）用由原始 key 派生的密钥 AES-GCM 加密，只读 Redis 无法还原
+ * - 请求体超过 idempotency.max-body-bytes 返回 413
+ *
+ * 回放的响应带 Idempotent-Replayed: true
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String KEY_PREFIX = "idem:";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MS = 50;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of(
+            "/api/v1/auth/register",
+            "/api/v1/auth/login",
+            "/api/v1/auth/send-code"
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${idempotency.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.processing-timeout-seconds:30}")
+    private long processingTimeoutSeconds;
+
+    @Value("${idempotency.max-body-bytes:16384}")
+    private int maxBodyBytes;
+
+    public IdempotencyFilter(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !IDEMPOTENT_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, 400, HEADER + " 长度应为 1-" + MAX_KEY_LENGTH);
+            return;
+        }
+
+        byte[] body = readBody(request);
+        if (body == null) {
+            writeError(response, 413, "请求体超过 " + maxBodyBytes + " 字节");
+            return;
+        }
+        String requestHash = sha256(body);
+        // 不含客户端 IP：移动端重试时常已切换网络（Wi-Fi 与蜂窝之间），IP 变了仍应命中；key 同时绑定请求体哈希
+        String scope = request.getRequestURI() + "\n"
+                + String.valueOf(request.getHeader("X-Device-Id")) + "\n" + idempotencyKey;
+        String redisKey = KEY_PREFIX + sha256(scope.getBytes(StandardCharsets.UTF_8));
+        SecretKeySpec bodyKey = new SecretKeySpec(digest(("body\n" + scope).getBytes(StandardCharsets.UTF_8)), "AES");
+
+        StoredResponse pending = StoredResponse.inProgress(requestHash);
+        Boolean claimed;
+        try {
+            claimed = redisTemplate.opsForValue().setIfAbsent(redisKey, objectMapper.writeValueAsString(pending),
+                    Duration.ofSeconds(processingTimeoutSeconds));
+        } catch (Exception e) {
+            // Redis 不可用时按普通请求处理
+            log.warn("Idempotency store unavailable, processing without key: {}", e.getMessage());
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+            return;
+        }
+
+        if (Boolean.TRUE.equals(claimed)) {
+            process(request, response, filterChain, body, requestHash, redisKey, bodyKey);
+        } else {
+            replay(response, redisKey, requestHash, bodyKey);
+        }
+    }
+
+    private void process(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         byte[] body, String requestHash, String redisKey,
+                         SecretKeySpec bodyKey) throws ServletException, IOException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        inFlight.put(redisKey, done);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), wrapper);
+            if (wrapper.getStatus() < 500) {
+                StoredResponse completed = StoredResponse.completed(requestHash, wrapper.getStatus(),
+                        wrapper.getContentType(), encrypt(bodyKey, wrapper.getContentAsByteArray()));
+                redisTemplate.opsForValue().set(redisKey, objectMapper.writeValueAsString(completed),
+                        Duration.ofSeconds(ttlSeconds));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                deleteQuietly(redisKey);
+            }
+            inFlight.remove(redisKey);
+            done.complete(null);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, String redisKey, String requestHash,
+                        SecretKeySpec bodyKey) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(processingTimeoutSeconds);
+        while (true) {
+            String value = redisTemplate.opsForValue().get(redisKey);
+            if (value == null) {
+                // 首个请求失败后占位已删除，由客户端重试
+                writeError(response, 409, "相同 " + HEADER + " 的请求处理失败，请重试");
+                return;
+            }
+            StoredResponse stored = objectMapper.readValue(value, StoredResponse.class);
+            if (!stored.requestHash().equals(requestHash)) {
+                writeError(response, 422, HEADER + " 已用于不同的请求");
+                return;
+            }
+            if (!stored.inProgress()) {
+                response.setStatus(stored.status());
+                if (stored.contentType() != null) {
+                    response.setContentType(stored.contentType());
+                }
+                response.setHeader("Idempotent-Replayed", "true");
+                response.getOutputStream().write(decrypt(bodyKey, stored.body()));
+                return;
+            }
+            if (!awaitCompletion(redisKey, deadline)) {
+                writeError(response, 409, "相同 " + HEADER + " 的请求正在处理中");
+                return;
+            }
+        }
+    }
+
+    /**
+     * 等待首个请求完成：同一实例内等本地 Future，否则间隔轮询。超过处理超时返回 false
+     */
+    private boolean awaitCompletion(String redisKey, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        CompletableFuture<Void> local = inFlight.get(redisKey);
+        try {
+            if (local != null) {
+                local.get(remaining, TimeUnit.NANOSECONDS);
+            } else {
+                Thread.sleep(Math.min(POLL_INTERVAL_MS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * 读取请求体，超过 maxBodyBytes 时返回 null（按 Content-Length 提前拒绝，分块传输时读到上限即停止）
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodyBytes) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 256);
+        byte[] buffer = new byte[4096];
+        InputStream input = request.getInputStream();
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (out.size() + read > maxBodyBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private String encrypt(SecretKeySpec key, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] decrypt(SecretKeySpec key, String stored) throws IOException {
+        try {
+            byte[] data = Base64.getDecoder().decode(stored);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, data, 0, GCM_IV_LENGTH));
+            return cipher.doFinal(data, GCM_IV_LENGTH, data.length - GCM_IV_LENGTH);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IOException("Cached idempotent response is unreadable", e);
+        }
+    }
+
+    private void deleteQuietly(String redisKey) {
+        try {
+            redisTemplate.delete(redisKey);
+        } catch (Exception e) {
+            log.warn("Failed to release idempotency key {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int code, String message) throws IOException {
+        response.setStatus(code);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(code, message));
+    }
+
+    private static String sha256(byte[] body) {
+        return HexFormat.of().formatHex(digest(body));
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Redis 中保存的状态：处理中（只有 requestHash）或已完成（含响应，body 为 Base64 的 IV + 密文）
+     */
+    record StoredResponse(boolean inProgress, String requestHash, int status, String contentType, String body) {
+
+        static StoredResponse inProgress(String requestHash) {
+            return new StoredResponse(true, requestHash, 0, null, null);
+        }
+
+        static StoredResponse completed(String requestHash, int status, String contentType, String body) {
+            return new StoredResponse(false, requestHash, status, contentType, body);
+        }
+    }
+
+    /**
+     * 请求体已被读取用于计算哈希，下游重新从内存读取
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
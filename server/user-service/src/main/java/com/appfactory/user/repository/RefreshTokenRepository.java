@@ -2,14 +2,66 @@ package com.appfactory.user.repository;
 
 import com.appfactory.user.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByToken(String token);
+    List<RefreshToken> findByUserIdOrderByLastUsedAtDesc(Long userId);
     void deleteByUserId(Long userId);
     void deleteByExpiresAtBefore(LocalDateTime dateTime);
+
+    /**
+     * 仅当会话仍持有提交上来的 token 时换成新 token。并发刷新同一 token 时只有一个更新成功，
+     * 其余在行锁释放后重新检查条件，返回 0
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.token = :newToken, r.expiresAt = :expiresAt, r.lastUsedAt = :now " +
+            "WHERE r.token = :oldToken")
+    int rotateToken(@Param("oldToken") String oldToken,
+                    @Param("newToken") String newToken,
+                    @Param("expiresAt") LocalDateTime expiresAt,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * 按 (user_id, device_id) upsert 会话，并在同一条语句中按最近使用时间淘汰超出上限的旧会话。
+     * 返回被淘汰的会话数
+     */
+    @Query(value = """
+            WITH upserted AS (
+                INSERT INTO refresh_tokens (user_id, device_id, device_name, token, expires_at, created_at, last_used_at)
+                VALUES (:userId, :deviceId, :deviceName, :token, :expiresAt, :now, :now)
+                ON CONFLICT (user_id, device_id) DO UPDATE
+                    SET token = EXCLUDED.token,
+                        device_name = COALESCE(EXCLUDED.device_name, refresh_tokens.device_name),
+                        expires_at = EXCLUDED.expires_at,
+                        last_used_at = EXCLUDED.last_used_at
+                RETURNING id
+            ), evicted AS (
+                DELETE FROM refresh_tokens
+                WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE user_id = :userId
+                      AND id NOT IN (SELECT id FROM upserted)
+                    ORDER BY last_used_at DESC
+                    OFFSET GREATEST(:maxSessions - 1, 0)
+                )
+                RETURNING id
+            )
+            SELECT count(*) FROM evicted
+            """, nativeQuery = true)
+    long upsertSession(@Param("userId") Long userId,
+                       @Param("deviceId") String deviceId,
+                       @Param("deviceName") String deviceName,
+                       @Param("token") String token,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("now") LocalDateTime now,
+                       @Param("maxSessions") int maxSessions);
 }
@@ -0,0 +1,55 @@
+package com.appfactory.user.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * 固定令牌认证：pathPrefix 下的请求头 headerName 与配置的令牌一致（常量时间比较）时授予 role。
+ * 令牌未配置时对应接口不可用。管理端（X-Admin-Token）和内部接口（X-Internal-Token）各注册一个实例，见 SecurityConfig
+ */
+public class ApiTokenFilter extends OncePerRequestFilter {
+
+    private final String pathPrefix;
+    private final String headerName;
+    private final byte[] apiToken;
+    private final String principal;
+    private final String role;
+
+    public ApiTokenFilter(String pathPrefix, String headerName, String apiToken, String principal, String role) {
+        this.pathPrefix = pathPrefix;
+        this.headerName = headerName;
+        this.apiToken = apiToken.getBytes(StandardCharsets.UTF_8);
+        this.principal = principal;
+        this.role = role;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(pathPrefix);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(headerName);
+        if (apiToken.length > 0 && header != null
+                && MessageDigest.isEqual(apiToken, header.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    principal, null, List.of(new SimpleGrantedAuthority(role)));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
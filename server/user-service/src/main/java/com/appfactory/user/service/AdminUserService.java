@@ -0,0 +1,160 @@
+package com.appfactory.user.service;
+
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadPool;
+import com.appfactory.user.dto.UserInfo;
+import com.appfactory.user.dto.UserPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 管理端用户列表与导出
+ *
+ * - 列表按 id keyset 分页（WHERE id > cursor ORDER BY id LIMIT n），翻页成本与页码无关
+ * - 总数取规划器估计值（无过滤时为 pg_class.reltuples，有过滤时为 EXPLAIN 的行数估计），不执行 count(*)
+ * - 导出在只读事务中通过服务端游标逐批读取，逐行写出 NDJSON，内存占用与数据量无关
+ * - 使用 reporting 连接池，长时间导出不占用请求连接
+ */
+@Slf4j
+@Service
+@WorkloadPool(Workload.REPORTING)
+public class AdminUserService {
+
+    private static final String COLUMNS = "id, phone, nickname, avatar_url, status, created_at";
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private static final RowMapper<UserInfo> USER_INFO_MAPPER = (rs, rowNum) -> UserInfo.builder()
+            .id(rs.getLong("id"))
+            .phone(rs.getString("phone"))
+            .nickname(rs.getString("nickname"))
+            .avatarUrl(rs.getString("avatar_url"))
+            .status(rs.getString("status"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public AdminUserService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                            PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL 只有在事务内且设置了 fetchSize 时才使用游标分批读取
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public UserPage list(Filter filter, Long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM users WHERE id > ?");
+        params.add(afterId != null ? afterId : 0L);
+        appendFilter(filter, sql, params);
+        sql.append(" ORDER BY id LIMIT ?");
+        // 多取一条用于判断是否还有下一页
+        params.add(limit + 1);
+
+        List<UserInfo> rows = jdbcTemplate.query(sql.toString(), USER_INFO_MAPPER, params.toArray());
+        boolean hasMore = rows.size() > limit;
+        List<UserInfo> items = hasMore ? rows.subList(0, limit) : rows;
+        return UserPage.builder()
+                .items(new ArrayList<>(items))
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * 规划器估计的匹配行数，统计信息过期时可能偏差较大，仅用于展示
+     */
+    public long estimateCount(Filter filter) {
+        try {
+            if (filter.isEmpty()) {
+                Long estimate = jdbcTemplate.queryForObject(
+                        "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass", Long.class);
+                // 从未 ANALYZE 的表 reltuples 为 -1
+                return estimate != null ? Math.max(0, estimate) : 0;
+            }
+            List<Object> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("EXPLAIN (FORMAT JSON) SELECT 1 FROM users WHERE TRUE");
+            appendFilter(filter, sql, params);
+            String json = jdbcTemplate.queryForObject(sql.toString(), String.class, params.toArray());
+            JsonNode plan = objectMapper.readTree(json).get(0).get("Plan");
+            return plan.path("Plan Rows").asLong(0);
+        } catch (Exception e) {
+            log.warn("Failed to estimate user count: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 按 id 顺序把匹配的用户逐行写为 NDJSON
+     */
+    public void export(Filter filter, OutputStream out) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM users WHERE TRUE");
+        appendFilter(filter, sql, params);
+        sql.append(" ORDER BY id");
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserInfo> users = exportJdbcTemplate.queryForStream(
+                    sql.toString(), USER_INFO_MAPPER, params.toArray())) {
+                users.forEach(user -> writeLine(out, user));
+            }
+        });
+    }
+
+    private void writeLine(OutputStream out, UserInfo user) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(user));
+            out.write(NEWLINE);
+        } catch (IOException e) {
+            // 客户端断开时终止导出，事务随之回滚并关闭游标
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendFilter(Filter filter, StringBuilder sql, List<Object> params) {
+        if (filter.status() != null) {
+            sql.append(" AND status = ?");
+            params.add(filter.status());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(filter.createdTo()));
+        }
+    }
+
+    /**
+     * 列表/导出过滤条件，字段为 null 表示不过滤
+     */
+    public record Filter(String status, LocalDateTime createdFrom, LocalDateTime createdTo) {
+
+        boolean isEmpty() {
+            return status == null && createdFrom == null && createdTo == null;
+        }
+    }
+}
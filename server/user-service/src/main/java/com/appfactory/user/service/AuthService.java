@@ -6,16 +6,23 @@ import com.appfactory.user.dto.*;
 import com.appfactory.user.entity.RefreshToken;
 import com.appfactory.user.entity.User;
 import com.appfactory.user.entity.VerificationCode;
+import com.appfactory.user.event.SecurityEvent;
+import com.appfactory.user.event.SecurityEventRecorder;
+import com.appfactory.user.jfr.RefreshRotationEvent;
 import com.appfactory.user.repository.RefreshTokenRepository;
 import com.appfactory.user.repository.UserRepository;
 import com.appfactory.user.util.JwtUtil;
+import com.appfactory.user.util.RequestUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -27,6 +34,14 @@ public class AuthService {
     private final SmsService smsService;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecurityEventRecorder securityEventRecorder;
+    private final LoginAttemptService loginAttemptService;
+    private final PasswordRehashService passwordRehashService;
+    private final SessionWriter sessionWriter;
+
+    @Value("${auth.session.max-per-user:5}")
+    private int maxSessionsPerUser;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -64,19 +79,30 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        securityEventRecorder.record(SecurityEvent.EventType.REGISTER, user.getId(), user.getPhone());
 
-        // 生成 Token
-        return generateAuthResponse(user);
+        // 生成 Token（会话与用户在同一事务内写入，要么一起提交，要么都不创建）
+        return generateAuthResponse(user, request.getDeviceId(), request.getDeviceName(), false);
     }
 
+    /**
+     * 锁定检查（LoginAttemptService.checkAllowed）由调用方在事务外先做，被锁定的请求不会占用数据库连接
+     */
     @Transactional
     public AuthResponse login(LoginRequest request) {
+        String ip = RequestUtil.clientIp();
+
         // 查找用户
-        User user = userRepository.findByPhone(request.getPhone())
-                .orElseThrow(() -> new AuthException("手机号或密码错误"));
+        User user = userRepository.findByPhone(request.getPhone()).orElse(null);
+        if (user == null) {
+            loginAttemptService.recordFailure(request.getPhone(), ip);
+            securityEventRecorder.record(SecurityEvent.EventType.LOGIN_FAILURE, null, request.getPhone(), "unknown_phone");
+            throw new AuthException("手机号或密码错误");
+        }
 
         // 检查用户状态
         if (user.getStatus() != User.UserStatus.ACTIVE) {
+            securityEventRecorder.record(SecurityEvent.EventType.LOGIN_FAILURE, user.getId(), user.getPhone(), "disabled");
             throw new AuthException("账号已被禁用");
         }
 
@@ -89,6 +115,10 @@ public class AuthService {
                 throw new AuthException("该账号未设置密码，请使用验证码登录");
             }
             authenticated = passwordEncoder.matches(request.getPassword(), user.getPasswordHash());
+            if (authenticated) {
+                // cost 低于当前配置的哈希在后台升级
+                passwordRehashService.rehashIfNeeded(user.getId(), request.getPassword(), user.getPasswordHash());
+            }
         } else if (request.getVerificationCode() != null && !request.getVerificationCode().isEmpty()) {
             // 验证码登录
             authenticated = smsService.verifyCode(
@@ -99,43 +129,71 @@ public class AuthService {
         }
 
         if (!authenticated) {
+            loginAttemptService.recordFailure(user.getPhone(), ip);
+            securityEventRecorder.record(SecurityEvent.EventType.LOGIN_FAILURE, user.getId(), user.getPhone(), "bad_credentials");
             throw new AuthException("手机号或密码/验证码错误");
         }
+        loginAttemptService.reset(user.getPhone());
+        securityEventRecorder.record(SecurityEvent.EventType.LOGIN_SUCCESS, user.getId(), user.getPhone());
 
         // 生成 Token
-        return generateAuthResponse(user);
+        return generateAuthResponse(user, request.getDeviceId(), request.getDeviceName(), true);
     }
 
     @Transactional
     public AuthResponse refreshToken(String refreshTokenStr) {
-        // 验证 refresh token
-        if (!jwtUtil.validateToken(refreshTokenStr)) {
-            throw new AuthException("刷新令牌无效");
-        }
+        RefreshRotationEvent event = new RefreshRotationEvent();
+        event.begin();
+        // 每一步开始前先记下该步失败时的结果，异常退出时由 finally 记录
+        String outcome = RefreshRotationEvent.INVALID;
+        Long userId = null;
+        try {
+            // 验证 refresh token
+            if (!jwtUtil.validateToken(refreshTokenStr)) {
+                throw new AuthException("刷新令牌无效");
+            }
 
-        // 从数据库查找
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenStr)
-                .orElseThrow(() -> new AuthException("刷新令牌不存在"));
+            // 从数据库查找
+            outcome = RefreshRotationEvent.MISSING;
+            RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenStr)
+                    .orElseThrow(() -> new AuthException("刷新令牌不存在"));
+            userId = refreshToken.getUserId();
 
-        if (refreshToken.isExpired()) {
-            refreshTokenRepository.delete(refreshToken);
-            throw new AuthException("刷新令牌已过期");
-        }
+            if (refreshToken.isExpired()) {
+                outcome = RefreshRotationEvent.EXPIRED;
+                refreshTokenRepository.delete(refreshToken);
+                throw new AuthException("刷新令牌已过期");
+            }
 
-        // 查找用户
-        User user = userRepository.findById(refreshToken.getUserId())
-                .orElseThrow(() -> new AuthException("用户不存在"));
+            // 查找用户
+            outcome = RefreshRotationEvent.USER_MISSING;
+            User user = userRepository.findById(refreshToken.getUserId())
+                    .orElseThrow(() -> new AuthException("用户不存在"));
 
-        // 删除旧的 refresh token
-        refreshTokenRepository.delete(refreshToken);
+            // 同一设备的会话原地轮换：只有会话仍持有提交上来的 token 时才换成新 token，
+            // 并发刷新或重放同一 token 时后到的一方更新 0 行，不会再拿到一对有效令牌
+            outcome = RefreshRotationEvent.REUSED;
+            String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getPhone());
+            String newRefreshToken = jwtUtil.generateRefreshToken(user.getId());
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000);
+            if (refreshTokenRepository.rotateToken(refreshTokenStr, newRefreshToken, expiresAt, now) == 0) {
+                throw new AuthException("刷新令牌已失效");
+            }
 
-        // 生成新的 Token
-        return generateAuthResponse(user);
+            securityEventRecorder.record(SecurityEvent.EventType.REFRESH, user.getId(), user.getPhone());
+            outcome = RefreshRotationEvent.ROTATED;
+            return buildAuthResponse(user, accessToken, newRefreshToken, refreshToken.getDeviceId());
+        } finally {
+            event.record(outcome, userId);
+        }
     }
 
     @Transactional
     public void logout(Long userId) {
         refreshTokenRepository.deleteByUserId(userId);
+        tokenRevocationService.revokeUser(userId);
+        securityEventRecorder.record(SecurityEvent.EventType.LOGOUT, userId, null);
     }
 
     public UserInfo getCurrentUser(Long userId) {
@@ -145,22 +203,59 @@ public class AuthService {
         return mapToUserInfo(user);
     }
 
-    private AuthResponse generateAuthResponse(User user) {
+    /**
+     * 列出用户的所有会话（按最近使用时间倒序）
+     */
+    public List<SessionInfo> listSessions(Long userId, String currentDeviceId) {
+        return refreshTokenRepository.findByUserIdOrderByLastUsedAtDesc(userId).stream()
+                .map(token -> SessionInfo.builder()
+                        .deviceId(token.getDeviceId())
+                        .deviceName(token.getDeviceName())
+                        .createdAt(token.getCreatedAt())
+                        .lastUsedAt(token.getLastUsedAt())
+                        .expiresAt(token.getExpiresAt())
+                        .current(token.getDeviceId().equals(currentDeviceId))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * @param batched 会话交给 SessionWriter 合并提交，只用于登录。注册为 false：合并写入在提交后执行，
+     *                失败时账号已创建但客户端拿不到 token，在同一事务内写入则二者一起回滚。
+     *                refresh 轮换不经过这里，在请求事务内按旧 token 条件更新（rotateToken）
+     */
+    private AuthResponse generateAuthResponse(User user, String deviceId, String deviceName, boolean batched) {
         String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getPhone());
         String refreshTokenStr = jwtUtil.generateRefreshToken(user.getId());
 
-        // 保存 refresh token
-        RefreshToken refreshToken = RefreshToken.builder()
-                .userId(user.getId())
-                .token(refreshTokenStr)
-                .expiresAt(LocalDateTime.now().plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000))
-                .build();
-        refreshTokenRepository.save(refreshToken);
+        // 客户端未提供设备 ID 时分配一个，客户端应保存并在后续登录时带上
+        if (deviceId == null || deviceId.isEmpty()) {
+            deviceId = UUID.randomUUID().toString();
+        }
+
+        // 按 (用户, 设备) upsert refresh token，超出上限的最久未使用会话同时被淘汰
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(jwtUtil.getRefreshTokenExpiration() / 1000);
+        if (batched) {
+            // 当前事务提交后才写入，事务回滚时新 token 不落库
+            sessionWriter.upsert(user.getId(), deviceId, deviceName, refreshTokenStr, expiresAt, now);
+        } else {
+            long evicted = refreshTokenRepository.upsertSession(
+                    user.getId(), deviceId, deviceName, refreshTokenStr, expiresAt, now, maxSessionsPerUser);
+            if (evicted > 0) {
+                log.debug("Evicted {} sessions for user {}", evicted, user.getId());
+            }
+        }
+
+        return buildAuthResponse(user, accessToken, refreshTokenStr, deviceId);
+    }
 
+    private AuthResponse buildAuthResponse(User user, String accessToken, String refreshToken, String deviceId) {
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshTokenStr)
+                .refreshToken(refreshToken)
                 .expiresIn(jwtUtil.getAccessTokenExpiration() / 1000)
+                .deviceId(deviceId)
                 .user(mapToUserInfo(user))
                 .build();
     }
@@ -0,0 +1,137 @@
+package com.appfactory.user.service;
+
+import com.appfactory.user.dto.TokenIntrospection;
+import com.appfactory.user.dto.UserInfo;
+import com.appfactory.user.entity.User;
+import com.appfactory.user.repository.UserRepository;
+import com.appfactory.user.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 供内部服务（ws / file / notification）使用的批量接口
+ *
+ * - 令牌校验：本地验签，吊销记录每批按涉及的用户 ID 从 Redis 读取一次，与 Gateway 的判定规则一致
+ * - 用户查询：去除 null 并去重后一次 findAllById（IN 查询），按请求顺序返回，不存在的 ID 不出现在结果中
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InternalUserService {
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * 结果与入参一一对应
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        Claims[] claims = new Claims[tokens.size()];
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < claims.length; i++) {
+            try {
+                claims[i] = jwtUtil.parseToken(tokens.get(i));
+            } catch (ExpiredJwtException e) {
+                results[i] = inactive("expired");
+                continue;
+            } catch (Exception e) {
+                results[i] = inactive("invalid");
+                continue;
+            }
+            if (!"access".equals(claims[i].get("type", String.class))) {
+                results[i] = inactive("not_access_token");
+            } else if (claims[i].get("userId", Long.class) != null) {
+                userIds.add(claims[i].get("userId", Long.class));
+            }
+        }
+        Map<Long, Long> cutoffs = loadCutoffs(userIds);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = introspect(claims[i], cutoffs);
+            }
+        }
+        return List.of(results);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserInfo> findUsers(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, User> users = userRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserInfo> results = new ArrayList<>(users.size());
+        for (Long id : distinctIds) {
+            User user = users.get(id);
+            if (user != null) {
+                results.add(mapToUserInfo(user));
+            }
+        }
+        return results;
+    }
+
+    private TokenIntrospection introspect(Claims claims, Map<Long, Long> cutoffs) {
+        Long userId = claims.get("userId", Long.class);
+        Long cutoff = cutoffs.get(userId);
+        if (cutoff != null && claims.getIssuedAt().getTime() / 1000 < cutoff) {
+            return inactive("revoked");
+        }
+        return TokenIntrospection.builder()
+                .active(true)
+                .userId(userId)
+                .phone(claims.get("phone", String.class))
+                .issuedAt(toLocalDateTime(claims.getIssuedAt()))
+                .expiresAt(toLocalDateTime(claims.getExpiration()))
+                .build();
+    }
+
+    /**
+     * Redis 不可用时不判定吊销，与 Gateway 内存缓存在断连期间的行为一致
+     */
+    private Map<Long, Long> loadCutoffs(Set<Long> userIds) {
+        try {
+            return tokenRevocationService.activeCutoffs(userIds);
+        } catch (Exception e) {
+            log.warn("Failed to load token revocations, skipping revocation check: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static TokenIntrospection inactive(String reason) {
+        return TokenIntrospection.builder()
+                .active(false)
+                .reason(reason)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static UserInfo mapToUserInfo(User user) {
+        return UserInfo.builder()
+                .id(user.getId())
+                .phone(user.getPhone())
+                .nickname(user.getNickname())
+                .avatarUrl(user.getAvatarUrl())
+                .status(user.getStatus().name())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
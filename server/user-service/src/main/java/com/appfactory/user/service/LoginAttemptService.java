@@ -0,0 +1,154 @@
+package com.appfactory.user.service;
+
+import com.appfactory.common.exception.AppException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 登录失败节流
+ *
+ * 按手机号和客户端 IP 分别统计失败次数，达到阈值后锁定，锁定时长随后续失败指数增长。
+ * 登录时先用一次 Redis 往返检查锁定状态，被锁定的请求不会进入数据库查询和 BCrypt。
+ * 登录成功只清除该手机号的计数，IP 计数不因某个账号登录成功而清除。
+ *
+ * Redis 不可用时放行，不影响正常登录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+
+    private static final String FAIL_PHONE_PREFIX = "auth:fail:phone:";
+    private static final String LOCK_PHONE_PREFIX = "auth:lock:phone:";
+    private static final String FAIL_IP_PREFIX = "auth:fail:ip:";
+    private static final String LOCK_IP_PREFIX = "auth:lock:ip:";
+
+    /**
+     * 返回各锁定 key 剩余时间的最大值（毫秒），未锁定返回 0
+     */
+    private static final RedisScript<Long> CHECK_SCRIPT = new DefaultRedisScript<>("""
+            local ttl = 0
+            for _, key in ipairs(KEYS) do
+                local t = redis.call('PTTL', key)
+                if t > ttl then ttl = t end
+            end
+            return ttl
+            """, Long.class);
+
+    /**
+     * KEYS: 成对的 失败计数 key / 锁定 key
+     * ARGV: 统计窗口(ms), 锁定基础时长(ms), 锁定最长时长(ms), 各对的阈值...
+     * 返回本次触发的最长锁定时间（毫秒），未触发返回 0
+     */
+    private static final RedisScript<Long> FAILURE_SCRIPT = new DefaultRedisScript<>("""
+            local window = tonumber(ARGV[1])
+            local base = tonumber(ARGV[2])
+            local max = tonumber(ARGV[3])
+            local result = 0
+            for i = 1, #KEYS, 2 do
+                local threshold = tonumber(ARGV[3 + (i + 1) / 2])
+                local failures = redis.call('INCR', KEYS[i])
+                if failures == 1 then
+                    redis.call('PEXPIRE', KEYS[i], window)
+                end
+                if failures >= threshold then
+                    local lock = math.floor(math.min(base * 2 ^ (failures - threshold), max))
+                    redis.call('SET', KEYS[i + 1], failures, 'PX', lock)
+                    -- 计数至少保留到锁定结束之后一个窗口，下一次失败继续翻倍
+                    redis.call('PEXPIRE', KEYS[i], lock + window)
+                    if lock > result then result = lock end
+                end
+            end
+            return result
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${auth.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.throttle.phone-threshold:5}")
+    private int phoneThreshold;
+
+    @Value("${auth.throttle.ip-threshold:50}")
+    private int ipThreshold;
+
+    @Value("${auth.throttle.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${auth.throttle.base-lock-seconds:30}")
+    private long baseLockSeconds;
+
+    @Value("${auth.throttle.max-lock-seconds:3600}")
+    private long maxLockSeconds;
+
+    /**
+     * 手机号或 IP 处于锁定期时抛出 429
+     */
+    public void checkAllowed(String phone, String ip) {
+        if (!enabled) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(2);
+        keys.add(LOCK_PHONE_PREFIX + phone);
+        if (ip != null) {
+            keys.add(LOCK_IP_PREFIX + ip);
+        }
+        Long remainingMs;
+        try {
+            remainingMs = redisTemplate.execute(CHECK_SCRIPT, keys);
+        } catch (Exception e) {
+            log.warn("Login throttle check failed, allowing: {}", e.getMessage());
+            return;
+        }
+        if (remainingMs != null && remainingMs > 0) {
+            throw new AppException(429, "登录失败次数过多，请 " + ((remainingMs + 999) / 1000) + " 秒后再试");
+        }
+    }
+
+    public void recordFailure(String phone, String ip) {
+        if (!enabled) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(4);
+        List<String> args = new ArrayList<>(5);
+        args.add(String.valueOf(windowSeconds * 1000));
+        args.add(String.valueOf(baseLockSeconds * 1000));
+        args.add(String.valueOf(maxLockSeconds * 1000));
+        keys.add(FAIL_PHONE_PREFIX + phone);
+        keys.add(LOCK_PHONE_PREFIX + phone);
+        args.add(String.valueOf(phoneThreshold));
+        if (ip != null) {
+            keys.add(FAIL_IP_PREFIX + ip);
+            keys.add(LOCK_IP_PREFIX + ip);
+            args.add(String.valueOf(ipThreshold));
+        }
+        try {
+            Long lockedMs = redisTemplate.execute(FAILURE_SCRIPT, keys, args.toArray());
+            if (lockedMs != null && lockedMs > 0) {
+                log.warn("Login locked for {} ms: phone={}, ip={}", lockedMs, phone, ip);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record login failure: {}", e.getMessage());
+        }
+    }
+
+    public void reset(String phone) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.delete(List.of(FAIL_PHONE_PREFIX + phone, LOCK_PHONE_PREFIX + phone));
+        } catch (Exception e) {
+            log.warn("Failed to reset login failures: {}", e.getMessage());
+        }
+    }
+}
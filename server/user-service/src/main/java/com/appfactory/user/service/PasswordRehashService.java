@@ -0,0 +1,97 @@
+package com.appfactory.user.service;
+
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadContext;
+import com.appfactory.user.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录成功后的密码重新哈希
+ *
+ * 哈希 cost 低于当前配置（或是不带算法前缀的历史哈希）时，在后台线程用当前编码器重新计算并写回，
+ * 不占用登录响应时间。队列满时直接放弃，下次登录会再次尝试
+ */
+@Slf4j
+@Service
+public class PasswordRehashService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordRehashService(UserRepository userRepository,
+                                 PasswordEncoder passwordEncoder,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${auth.password.rehash-queue-capacity:1000}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    // 低优先级，避免与登录请求争抢 CPU
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * 需要升级时提交后台重新哈希；在事务中调用时等提交后再提交任务
+     */
+    public void rehashIfNeeded(Long userId, String rawPassword, String currentHash) {
+        if (!passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(userId, rawPassword, currentHash);
+                }
+            });
+        } else {
+            submit(userId, rawPassword, currentHash);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Long userId, String rawPassword, String currentHash) {
+        try {
+            executor.execute(() -> rehash(userId, rawPassword, currentHash));
+        } catch (RejectedExecutionException e) {
+            log.debug("Rehash queue full, skipping user {}", userId);
+        }
+    }
+
+    private void rehash(Long userId, String rawPassword, String currentHash) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            Integer updated = WorkloadContext.call(Workload.BACKGROUND, () -> transactionTemplate.execute(status ->
+                    userRepository.replacePasswordHash(userId, currentHash, newHash)));
+            if (updated != null && updated > 0) {
+                log.debug("Rehashed password for user {}", userId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to rehash password for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
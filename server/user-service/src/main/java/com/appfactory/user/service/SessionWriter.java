@@ -0,0 +1,390 @@
+package com.appfactory.user.service;
+
+import com.appfactory.common.exception.AppException;
+import com.appfactory.user.datasource.Workload;
+import com.appfactory.user.datasource.WorkloadContext;
+import com.appfactory.user.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 登录会话的合并写入（group commit）
+ *
+ * 只用于登录新建或覆盖会话。refresh 轮换是安全相关的写入，始终在请求事务内按旧 token 条件更新
+ * （RefreshTokenRepository.rotateToken），不经过这里。
+ * 并发登录的会话 upsert 交给单个写入线程，在一个短窗口内（auth.session.batch.window-ms，或攒满 max-rows 行）
+ * 合并为一条多行 upsert 语句提交，多个登录共用一次提交（一次 WAL fsync）。调用方等待所在批次提交后返回。
+ * - 调用方在事务内时，会话在该事务提交后才入队，事务回滚时不写入
+ * - 调用方在提交后等待时仍绑定着自己的 interactive 连接，每个等待中的调用方最多多占用一个连接 timeout-ms；
+ *   写入线程使用独立的 session 连接池，不会因此拿不到连接
+ * - 未启用或队列已满时，在调用方事务内执行单行 upsert
+ * - 批量语句失败时逐行重试，一行失败只影响对应的调用方
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionWriter {
+
+    private static final String UPSERT_PREFIX = """
+            WITH upserted AS (
+                INSERT INTO refresh_tokens (user_id, device_id, device_name, token, expires_at, created_at, last_used_at)
+                VALUES\s""";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 7;
+    // 与 RefreshTokenRepository.upsertSession 相同，每个用户保留本批写入的会话和最近使用的其余会话，共 max-per-user 个；
+    // 同一用户本批写入超过 max-per-user 行时阈值取 0，只淘汰其余会话，不会把 rn 较小的也删掉
+    private static final String UPSERT_SUFFIX = """
+
+                ON CONFLICT (user_id, device_id) DO UPDATE
+                    SET token = EXCLUDED.token,
+                        device_name = COALESCE(EXCLUDED.device_name, refresh_tokens.device_name),
+                        expires_at = EXCLUDED.expires_at,
+                        last_used_at = EXCLUDED.last_used_at
+                RETURNING id, user_id
+            ), per_user AS (
+                SELECT user_id, count(*) AS upserted_count FROM upserted GROUP BY user_id
+            ), evicted AS (
+                DELETE FROM refresh_tokens
+                WHERE id IN (
+                    SELECT ranked.id FROM (
+                        SELECT r.id, r.user_id,
+                               row_number() OVER (PARTITION BY r.user_id ORDER BY r.last_used_at DESC) AS rn
+                        FROM refresh_tokens r
+                        WHERE r.user_id IN (SELECT user_id FROM per_user)
+                          AND r.id NOT IN (SELECT id FROM upserted)
+                    ) ranked
+                    JOIN per_user p ON p.user_id = ranked.user_id
+                    WHERE ranked.rn > GREATEST(? - p.upserted_count, 0)
+                )
+                RETURNING user_id
+            )
+            SELECT user_id, count(*) FROM evicted GROUP BY user_id
+            """;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.session.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.session.batch.window-ms:2}")
+    private long windowMs;
+
+    @Value("${auth.session.batch.max-rows:64}")
+    private int maxRows;
+
+    @Value("${auth.session.batch.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${auth.session.batch.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${auth.session.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    private BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private String fullBatchSql;
+    private String singleRowSql;
+
+    private DistributionSummary batchSize;
+    private Timer waitTimer;
+    private Timer flushTimer;
+    private Counter queueFullFallbacks;
+    private Counter rowRetries;
+
+    @PostConstruct
+    public void start() {
+        batchSize = DistributionSummary.builder("auth.session.batch.size")
+                .description("Session rows per group commit")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        waitTimer = Timer.builder("auth.session.batch.wait")
+                .description("Time from enqueue until the caller's batch committed")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        flushTimer = Timer.builder("auth.session.batch.flush")
+                .description("Execution time of one batch statement")
+                .register(meterRegistry);
+        queueFullFallbacks = Counter.builder("auth.session.batch.fallback")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        rowRetries = Counter.builder("auth.session.batch.fallback")
+                .tag("reason", "batch_failed")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        fullBatchSql = buildUpsertSql(maxRows);
+        singleRowSql = buildUpsertSql(1);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::runLoop, "session-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        // 关闭前入队的会话在当前线程写完
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flushSafely(remaining);
+        }
+    }
+
+    /**
+     * upsert 一个设备会话并淘汰超出上限的旧会话
+     *
+     * 调用方在事务内时，会话推迟到该事务提交后（afterCommit）再入队，调用方仍等待所在批次提交后返回；
+     * 调用方事务回滚时会话不会写入，新 token 不会在登录失败时落库。批次写入失败或超时时，
+     * 异常从调用方的提交处抛出，此时调用方事务已提交，但客户端拿不到新的 token，需要重新登录；
+     * 登录事务本身不改变已有会话，所以不要把 refresh 轮换交给本方法。
+     * 注册也不使用本方法：用户在提交后才入队，写入线程能看到，但批次失败时账号已创建而客户端拿不到 token，
+     * 重试注册只会得到“手机号已注册”
+     */
+    public void upsert(Long userId, String deviceId, String deviceName, String token,
+                       LocalDateTime expiresAt, LocalDateTime now) {
+        if (!running) {
+            upsertInCurrentTransaction(userId, deviceId, deviceName, token, expiresAt, now);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingWrite write = new PendingWrite(userId, deviceId, deviceName, token,
+                    Timestamp.valueOf(expiresAt), Timestamp.valueOf(now));
+            if (!queue.offer(write)) {
+                queueFullFallbacks.increment();
+                upsertInCurrentTransaction(userId, deviceId, deviceName, token, expiresAt, now);
+                return;
+            }
+            await(write);
+            return;
+        }
+        // 提交后当前线程仍绑定着调用方的连接，不能再退回单行写入，所以队列已满时现在就在调用方事务内写入
+        if (queue.remainingCapacity() == 0) {
+            queueFullFallbacks.increment();
+            upsertInCurrentTransaction(userId, deviceId, deviceName, token, expiresAt, now);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // 提交时才创建，批次窗口从真正入队时开始计算
+                PendingWrite write = new PendingWrite(userId, deviceId, deviceName, token,
+                        Timestamp.valueOf(expiresAt), Timestamp.valueOf(now));
+                enqueueAfterCommit(write);
+                await(write);
+            }
+        });
+    }
+
+    private void enqueueAfterCommit(PendingWrite write) {
+        try {
+            if (!queue.offer(write, timeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Session write for user {} not enqueued within {} ms", write.userId, timeoutMs);
+                throw new AppException(503, "服务繁忙，请稍后再试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(503, "服务繁忙，请稍后再试", e);
+        }
+    }
+
+    private void await(PendingWrite write) {
+        long evicted;
+        try {
+            evicted = write.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 批次可能仍会提交，多出的会话行在同一设备下次登录时被覆盖
+            log.warn("Session write for user {} not committed within {} ms", write.userId, timeoutMs);
+            throw new AppException(503, "服务繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(503, "服务繁忙，请稍后再试", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        logEvicted(write.userId, evicted);
+    }
+
+    private void upsertInCurrentTransaction(Long userId, String deviceId, String deviceName, String token,
+                                            LocalDateTime expiresAt, LocalDateTime now) {
+        logEvicted(userId, refreshTokenRepository.upsertSession(userId, deviceId, deviceName, token, expiresAt, now,
+                maxSessionsPerUser));
+    }
+
+    private static void logEvicted(Long userId, long evicted) {
+        if (evicted > 0) {
+            log.debug("Evicted {} sessions for user {}", evicted, userId);
+        }
+    }
+
+    private void runLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxRows);
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 窗口从批次中第一条入队时开始计算，先到的调用方最多多等 window-ms
+                long deadline = first.enqueuedAt + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxRows) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flushSafely(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushSafely(List<PendingWrite> batch) {
+        WorkloadContext.run(Workload.SESSION, () -> {
+            try {
+                flush(batch);
+            } catch (RuntimeException e) {
+                log.warn("Session batch of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+                retryRowByRow(batch);
+            }
+        });
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        // 同一 (用户, 设备) 在一条 upsert 中只能出现一次，保留最后一条，与依次执行的结果相同
+        Map<String, PendingWrite> rows = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            rows.put(write.userId + "\u0000" + write.deviceId, write);
+        }
+        List<PendingWrite> distinct = new ArrayList<>(rows.values());
+
+        long start = System.nanoTime();
+        Map<Long, Long> evicted = execute(distinct.size() == maxRows ? fullBatchSql : buildUpsertSql(distinct.size()),
+                distinct);
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(distinct.size());
+
+        for (PendingWrite write : batch) {
+            complete(write, evicted.getOrDefault(write.userId, 0L));
+        }
+    }
+
+    private void retryRowByRow(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            rowRetries.increment();
+            try {
+                complete(write, execute(singleRowSql, List.of(write)).getOrDefault(write.userId, 0L));
+            } catch (RuntimeException e) {
+                write.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void complete(PendingWrite write, long evicted) {
+        waitTimer.record(System.nanoTime() - write.enqueuedAt, TimeUnit.NANOSECONDS);
+        write.result.complete(evicted);
+    }
+
+    private Map<Long, Long> execute(String sql, List<PendingWrite> rows) {
+        Object[] args = new Object[rows.size() * COLUMNS + 1];
+        int i = 0;
+        for (PendingWrite write : rows) {
+            args[i++] = write.userId;
+            args[i++] = write.deviceId;
+            args[i++] = write.deviceName;
+            args[i++] = write.token;
+            args[i++] = write.expiresAt;
+            args[i++] = write.now;
+            args[i++] = write.now;
+        }
+        args[i] = maxSessionsPerUser;
+
+        Map<Long, Long> evicted = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            evicted.put(rs.getLong(1), rs.getLong(2));
+        }, args);
+        return evicted;
+    }
+
+    private static String buildUpsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(
+                UPSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2) + UPSERT_SUFFIX.length());
+        sql.append(UPSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        sql.append(UPSERT_SUFFIX);
+        return sql.toString();
+    }
+
+    private static final class PendingWrite {
+        private final Long userId;
+        private final String deviceId;
+        private final String deviceName;
+        private final String token;
+        private final Timestamp expiresAt;
+        private final Timestamp now;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private PendingWrite(Long userId, String deviceId, String deviceName, String token,
+                             Timestamp expiresAt, Timestamp now) {
+            this.userId = userId;
+            this.deviceId = deviceId;
+            this.deviceName = deviceName;
+            this.token = token;
+            this.expiresAt = expiresAt;
+            this.now = now;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.appfactory.user.service;
 
 import com.appfactory.common.exception.AppException;
+import com.appfactory.user.dto.SendCodeResponse;
 import com.appfactory.user.entity.VerificationCode;
+import com.appfactory.user.event.SecurityEvent;
+import com.appfactory.user.event.SecurityEventRecorder;
+import com.appfactory.user.jfr.VerificationCodeEvent;
 import com.appfactory.user.repository.VerificationCodeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,67 +25,149 @@ public class SmsService {
 
     private final VerificationCodeRepository verificationCodeRepository;
     private final StringRedisTemplate redisTemplate;
+    private final SecurityEventRecorder securityEventRecorder;
 
     @Value("${sms.mock:true}")
     private boolean mockMode;
 
+    @Value("${sms.cooldown-seconds:60}")
+    private long cooldownSeconds;
+
+    @Value("${sms.reuse-min-remaining-seconds:60}")
+    private long reuseMinRemainingSeconds;
+
     private static final int CODE_LENGTH = 6;
     private static final int CODE_EXPIRATION_MINUTES = 5;
     private static final int MAX_SEND_PER_HOUR = 5;
     private static final String RATE_LIMIT_KEY_PREFIX = "sms:rate:";
-
+    private static final int MAX_VERIFY_ATTEMPTS = 5;
+    private static final String VERIFY_ATTEMPTS_KEY_PREFIX = "sms:attempts:";
+    private static final String COOLDOWN_KEY_PREFIX = "sms:cooldown:";
+    private static final String VERIFIED = "verified";
+
+    /**
+     * 重发策略：
+     * - 冷却期内（sms.cooldown-seconds）直接返回剩余冷却时间，不写库、不发短信、不计入发送频率
+     * - 冷却期后，最近一条未使用的验证码剩余有效期不少于 sms.reuse-min-remaining-seconds 时重发原验证码，不写库
+     * - 否则生成新验证码
+     */
     @Transactional
-    public void sendVerificationCode(String phone, VerificationCode.CodeType type) {
-        // 检查发送频率限制
-        checkRateLimit(phone);
-
-        // 生成验证码
-        String code = generateCode();
-
-        // 保存到数据库
-        VerificationCode verificationCode = VerificationCode.builder()
-                .phone(phone)
-                .code(code)
-                .type(type)
-                .expiresAt(LocalDateTime.now().plusMinutes(CODE_EXPIRATION_MINUTES))
-                .build();
-        verificationCodeRepository.save(verificationCode);
+    public SendCodeResponse sendVerificationCode(String phone, VerificationCode.CodeType type) {
+        VerificationCodeEvent event = new VerificationCodeEvent();
+        event.begin();
+
+        // 冷却期内不重复发送
+        String cooldownKey = COOLDOWN_KEY_PREFIX + type.name() + ":" + phone;
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(cooldownKey, "1", cooldownSeconds, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(acquired)) {
+            event.record(VerificationCodeEvent.SEND, type.name(), "cooldown");
+            return SendCodeResponse.builder()
+                    .sent(false)
+                    .cooldownSeconds(remainingCooldown(cooldownKey))
+                    .build();
+        }
 
-        // 发送短信
-        if (mockMode) {
-            log.info("【模拟短信】手机号: {}, 验证码: {}, 类型: {}", phone, code, type);
-        } else {
-            // TODO: 对接真实短信服务商 (阿里云、腾讯云等)
-            sendSmsViaProvider(phone, code, type);
+        boolean reused;
+        try {
+            // 检查发送频率限制
+            checkRateLimit(phone);
+
+            String code = reusableCode(phone, type);
+            reused = code != null;
+            if (code == null) {
+                // 生成验证码并保存到数据库
+                code = generateCode();
+                VerificationCode verificationCode = VerificationCode.builder()
+                        .phone(phone)
+                        .code(code)
+                        .type(type)
+                        .expiresAt(LocalDateTime.now().plusMinutes(CODE_EXPIRATION_MINUTES))
+                        .build();
+                verificationCodeRepository.save(verificationCode);
+            }
+
+            // 发送短信
+            if (mockMode) {
+                log.debug("【模拟短信】手机号: {}, 验证码: {}, 类型: {}", phone, code, type);
+            } else {
+                // TODO: 对接真实短信服务商 (阿里云、腾讯云等)
+                sendSmsViaProvider(phone, code, type);
+            }
+        } catch (RuntimeException e) {
+            // 未发送成功，不占用冷却期
+            redisTemplate.delete(cooldownKey);
+            event.record(VerificationCodeEvent.SEND, type.name(), "failed");
+            throw e;
         }
 
         // 记录发送次数
         incrementRateLimit(phone);
+        securityEventRecorder.record(SecurityEvent.EventType.CODE_SENT, null, phone, type.name());
+        event.record(VerificationCodeEvent.SEND, type.name(), reused ? "reused" : "sent");
+        return SendCodeResponse.builder()
+                .sent(true)
+                .cooldownSeconds(cooldownSeconds)
+                .build();
     }
 
     public boolean verifyCode(String phone, String code, VerificationCode.CodeType type) {
+        VerificationCodeEvent event = new VerificationCodeEvent();
+        event.begin();
+        String outcome = checkCode(phone, code, type);
+        event.record(VerificationCodeEvent.VERIFY, type.name(), outcome);
+        return VERIFIED.equals(outcome);
+    }
+
+    /**
+     * 校验并标记验证码，返回结果（VERIFIED 或失败原因）
+     */
+    private String checkCode(String phone, String code, VerificationCode.CodeType type) {
         var verificationCodeOpt = verificationCodeRepository
                 .findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(phone, type);
 
         if (verificationCodeOpt.isEmpty()) {
-            return false;
+            return "missing";
         }
 
         VerificationCode verificationCode = verificationCodeOpt.get();
 
         if (verificationCode.isExpired()) {
-            return false;
+            return "expired";
+        }
+
+        // 每次校验先原子地占用一次尝试机会再比对，并发猜测也不会超过上限；达到上限的验证码作废，需重新发送
+        String attemptsKey = VERIFY_ATTEMPTS_KEY_PREFIX + verificationCode.getId();
+        if (claimAttempt(attemptsKey) > MAX_VERIFY_ATTEMPTS) {
+            return "locked";
         }
 
         if (!verificationCode.getCode().equals(code)) {
-            return false;
+            securityEventRecorder.record(SecurityEvent.EventType.CODE_VERIFY_FAILURE, null, phone, type.name());
+            return "mismatch";
         }
 
         // 标记为已验证
         verificationCode.setVerified(true);
         verificationCodeRepository.save(verificationCode);
 
-        return true;
+        return VERIFIED;
+    }
+
+    /**
+     * 可重发的原验证码：未使用、剩余有效期足够、未因错误次数过多作废
+     */
+    private String reusableCode(String phone, VerificationCode.CodeType type) {
+        return verificationCodeRepository.findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(phone, type)
+                .filter(code -> LocalDateTime.now().plusSeconds(reuseMinRemainingSeconds).isBefore(code.getExpiresAt()))
+                .filter(code -> attemptsUsed(VERIFY_ATTEMPTS_KEY_PREFIX + code.getId()) < MAX_VERIFY_ATTEMPTS)
+                .map(VerificationCode::getCode)
+                .orElse(null);
+    }
+
+    private long remainingCooldown(String cooldownKey) {
+        Long ttl = redisTemplate.getExpire(cooldownKey, TimeUnit.SECONDS);
+        return ttl != null && ttl > 0 ? ttl : 1;
     }
 
     private void checkRateLimit(String phone) {
@@ -102,6 +188,27 @@ public class SmsService {
         }
     }
 
+    /**
+     * 占用一次校验机会，返回包括本次在内的已用次数（INCR，首次设置过期时间）。
+     * 计数放在 Redis 而不是验证码表：登录失败会回滚事务，数据库中的计数会一起回滚
+     */
+    private long claimAttempt(String attemptsKey) {
+        Long count = redisTemplate.opsForValue().increment(attemptsKey);
+
+        if (count != null && count == 1) {
+            redisTemplate.expire(attemptsKey, CODE_EXPIRATION_MINUTES, TimeUnit.MINUTES);
+        }
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 已用的校验次数，只用于决定是否重发原验证码：重发的码即使随后被并发用完，也会在校验时被 claimAttempt 拒绝
+     */
+    private long attemptsUsed(String attemptsKey) {
+        String attempts = redisTemplate.opsForValue().get(attemptsKey);
+        return attempts != null ? Long.parseLong(attempts) : 0;
+    }
+
     private String generateCode() {
         Random random = new Random();
         StringBuilder code = new StringBuilder();
@@ -113,7 +220,7 @@ public class SmsService {
 
     private void sendSmsViaProvider(String phone, String code, VerificationCode.CodeType type) {
         // 实际对接短信服务商的逻辑
-        log.info("Sending SMS to {} with code {} for type {}", phone, code, type);
+        log.info("Sending SMS to {} for type {}", phone, type);
     }
 
     @Transactional
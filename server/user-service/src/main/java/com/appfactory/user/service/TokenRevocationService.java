@@ -0,0 +1,101 @@
+package com.appfactory.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access Token 吊销广播
+ *
+ * 以 "用户 ID + 签发时间截止点" 的形式吊销：iat 早于截止点的 access token 全部失效。
+ * 记录写入 Redis 有序集合（score 为过期时间）作为快照，并通过 pub/sub 通知 Gateway，
+ * Gateway 在内存中校验，不需要每个请求访问 Redis。
+ *
+ * 消息格式：{userId}:{cutoffEpochSeconds}:{expiresAtEpochSeconds}，需与 Gateway 的
+ * TokenRevocationCache 保持一致
+ *
+ * 另在 auth:revocations:cutoffs（member 为用户 ID，score 为截止点）中保存每个用户最新的截止点，
+ * 供内部接口按用户 ID 用 ZMSCORE 查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    public static final String REVOCATION_CHANNEL = "auth:revocations";
+    public static final String REVOCATION_SNAPSHOT_KEY = "auth:revocations:snapshot";
+    public static final String REVOCATION_CUTOFFS_KEY = "auth:revocations:cutoffs";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${jwt.access-token-expiration}")
+    private Long accessTokenExpiration;
+
+    /**
+     * 吊销用户此刻之前签发的所有 access token。
+     * 在事务中调用时，等事务提交后再广播
+     */
+    public void revokeUser(Long userId) {
+        long cutoff = System.currentTimeMillis() / 1000;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, cutoff);
+                }
+            });
+        } else {
+            publish(userId, cutoff);
+        }
+    }
+
+    /**
+     * 指定用户中仍有效的吊销记录：用户 ID -> 签发时间截止点（秒）。一次 ZMSCORE，只读取请求的用户
+     */
+    public Map<Long, Long> activeCutoffs(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = List.copyOf(userIds);
+        List<Double> scores = redisTemplate.opsForZSet()
+                .score(REVOCATION_CUTOFFS_KEY, ids.stream().map(String::valueOf).toArray());
+        if (scores == null) {
+            return Map.of();
+        }
+        // 截止点早于 now - 有效期 的记录对应的 token 已全部过期
+        long oldestActive = System.currentTimeMillis() / 1000 - accessTokenExpiration / 1000;
+        Map<Long, Long> cutoffs = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Double score = scores.get(i);
+            if (score != null && score.longValue() > oldestActive) {
+                cutoffs.put(ids.get(i), score.longValue());
+            }
+        }
+        return cutoffs;
+    }
+
+    private void publish(Long userId, long cutoff) {
+        // 截止点之前签发的 token 最晚在 cutoff + 有效期 时自然过期，之后记录即可丢弃
+        long expiresAt = cutoff + accessTokenExpiration / 1000;
+        String entry = userId + ":" + cutoff + ":" + expiresAt;
+        try {
+            redisTemplate.opsForZSet().add(REVOCATION_SNAPSHOT_KEY, entry, expiresAt);
+            redisTemplate.opsForZSet().removeRangeByScore(REVOCATION_SNAPSHOT_KEY, 0, cutoff);
+            redisTemplate.opsForZSet().add(REVOCATION_CUTOFFS_KEY, userId.toString(), cutoff);
+            redisTemplate.opsForZSet().removeRangeByScore(REVOCATION_CUTOFFS_KEY, 0,
+                    cutoff - accessTokenExpiration / 1000);
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL, entry);
+        } catch (Exception e) {
+            log.error("Failed to publish token revocation for user {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.appfactory.user.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public final class RequestUtil {
+
+    private RequestUtil() {
+    }
+
+    /**
+     * 当前请求的客户端 IP。不在请求线程中调用时返回 null
+     *
+     * 取连接对端地址；对端是受信代理（server.tomcat.remoteip.internal-proxies）时，Tomcat 的 RemoteIpValve
+     * 已经把它换成 Gateway 写入的 X-Client-IP。客户端自带的 X-Forwarded-For 不参与判断
+     */
+    public static String clientIp() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,98 @@
+package com.appfactory.user.config;
+
+import com.appfactory.user.entity.VerificationCode;
+import com.appfactory.user.repository.VerificationCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 插入吞吐基准
+ *
+ * 连接本地数据库（Flyway 迁移后执行），类名不匹配 surefire 的默认规则，只在显式指定时运行：
+ *   mvn -pl user-service test -Dtest=InsertBenchmark
+ *
+ * 在同一事务中向 verification_codes 写入 N 行后回滚，不留下数据：
+ * - identity：逐行 INSERT ... RETURNING id，即 IDENTITY 策略下 Hibernate 的行为（每行一次往返）
+ * - pooled：实体 saveAll，ID 来自 pooled 序列，按 hibernate.jdbc.batch_size 分批发送（reWriteBatchedInserts 改写为多行 INSERT）
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class InsertBenchmark {
+
+    private static final int[] ROW_COUNTS = {1_000, 10_000};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final String BENCH_PHONE = "00000000000";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Test
+    void identityVersusPooledInserts() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            identityInserts(1_000);
+            pooledInserts(1_000);
+        }
+
+        log.info("| rows | identity (rows/s) | pooled + batch (rows/s) | speedup |");
+        log.info("|------|-------------------|-------------------------|---------|");
+        for (int rows : ROW_COUNTS) {
+            double identity = rows / seconds(() -> identityInserts(rows));
+            double pooled = rows / seconds(() -> pooledInserts(rows));
+            log.info("| {} | {} | {} | {}x |", rows,
+                    String.format("%.0f", identity), String.format("%.0f", pooled),
+                    String.format("%.1f", pooled / identity));
+        }
+    }
+
+    private void identityInserts(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plusMinutes(5));
+            for (int i = 0; i < rows; i++) {
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO verification_codes (phone, code, type, expires_at, verified, created_at) "
+                                + "VALUES (?, ?, ?, ?, false, now()) RETURNING id",
+                        Long.class, BENCH_PHONE, "000000", "LOGIN", expiresAt);
+            }
+            status.setRollbackOnly();
+        });
+    }
+
+    private void pooledInserts(int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+            List<VerificationCode> codes = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                codes.add(VerificationCode.builder()
+                        .phone(BENCH_PHONE)
+                        .code("000000")
+                        .type(VerificationCode.CodeType.LOGIN)
+                        .expiresAt(expiresAt)
+                        .build());
+            }
+            verificationCodeRepository.saveAll(codes);
+            verificationCodeRepository.flush();
+            status.setRollbackOnly();
+        });
+    }
+
+    private static double seconds(Runnable round) {
+        long start = System.nanoTime();
+        round.run();
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.appfactory.user.config;
+
+import com.appfactory.user.repository.RefreshTokenRepository;
+import com.appfactory.user.service.SessionWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 会话写入基准：并发登录时逐个提交与合并提交的对比
+ *
+ * 连接本地数据库（Flyway 迁移后执行），类名不匹配 surefire 的默认规则，只在显式指定时运行：
+ *   mvn -pl user-service test -Dtest=SessionWriteBenchmark
+ *
+ * 每个线程模拟一个用户从不同设备反复登录，每次登录写入一个会话：
+ * - per-commit：每次登录一个事务执行 RefreshTokenRepository.upsertSession，即合并写入之前的行为
+ * - group-commit：每次登录一个事务调用 SessionWriter.upsert，与 AuthService.login 相同，提交后入队并等待批次提交
+ * 基准用户的手机号以 099 开头，结束时删除（会话随外键级联删除）
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SessionWriteBenchmark {
+
+    private static final int[] THREAD_COUNTS = {4, 16, 64};
+    private static final int LOGINS_PER_THREAD = 200;
+    private static final String BENCH_PHONE_PREFIX = "099";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private SessionWriter sessionWriter;
+
+    @Value("${auth.session.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    @Value("${auth.session.batch.window-ms:2}")
+    private long windowMs;
+
+    @Test
+    void perCommitVersusGroupCommit() throws Exception {
+        int maxThreads = Arrays.stream(THREAD_COUNTS).max().orElseThrow();
+        List<Long> userIds = createUsers(maxThreads);
+        try {
+            round(userIds.subList(0, 4), false);
+            round(userIds.subList(0, 4), true);
+
+            log.info("Group commit window {} ms", windowMs);
+            log.info("| threads | per-commit (logins/s) | per-commit p99 (ms) | group-commit (logins/s) | group-commit p99 (ms) |");
+            log.info("|---------|-----------------------|---------------------|-------------------------|-----------------------|");
+            for (int threads : THREAD_COUNTS) {
+                Result direct = round(userIds.subList(0, threads), false);
+                Result batched = round(userIds.subList(0, threads), true);
+                log.info("| {} | {} | {} | {} | {} |", threads,
+                        String.format("%.0f", direct.throughput), String.format("%.2f", direct.p99Millis),
+                        String.format("%.0f", batched.throughput), String.format("%.2f", batched.p99Millis));
+            }
+        } finally {
+            jdbcTemplate.update("DELETE FROM users WHERE phone LIKE ?", BENCH_PHONE_PREFIX + "%");
+        }
+    }
+
+    private List<Long> createUsers(int count) {
+        List<Long> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO users (phone, nickname, status) VALUES (?, 'bench', 'ACTIVE') "
+                            + "ON CONFLICT (phone) DO UPDATE SET nickname = EXCLUDED.nickname RETURNING id",
+                    Long.class, String.format("%s%08d", BENCH_PHONE_PREFIX, i)));
+        }
+        return userIds;
+    }
+
+    private Result round(List<Long> userIds, boolean batched) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(userIds.size());
+        try {
+            long start = System.nanoTime();
+            List<Future<long[]>> futures = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> logins(userId, batched)));
+            }
+            long[] latencies = new long[userIds.size() * LOGINS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] threadLatencies = future.get();
+                System.arraycopy(threadLatencies, 0, latencies, offset, threadLatencies.length);
+                offset += threadLatencies.length;
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Arrays.sort(latencies);
+            return new Result(latencies.length / seconds,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long[] logins(Long userId, boolean batched) {
+        long[] latencies = new long[LOGINS_PER_THREAD];
+        for (int i = 0; i < LOGINS_PER_THREAD; i++) {
+            String deviceId = "bench-" + (i % (maxSessionsPerUser * 2));
+            String token = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            long start = System.nanoTime();
+            if (batched) {
+                transactionTemplate.executeWithoutResult(status ->
+                        sessionWriter.upsert(userId, deviceId, null, token, now.plusDays(1), now));
+            } else {
+                transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.upsertSession(
+                        userId, deviceId, null, token, now.plusDays(1), now, maxSessionsPerUser));
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private record Result(double throughput, double p99Millis) {
+    }
+}
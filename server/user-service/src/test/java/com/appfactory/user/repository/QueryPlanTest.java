@@ -0,0 +1,221 @@
+package com.appfactory.user.repository;
+
+import com.appfactory.user.entity.VerificationCode;
+import com.appfactory.user.service.TokenRevocationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 查询计划回归检查
+ *
+ * 在 PostgreSQL 16 容器上执行 Flyway 迁移并写入测试数据，逐个调用三个仓库的派生查询，
+ * 由 StatementInspector 记下 Hibernate 实际生成的 SQL，再对每条 SQL 的通用计划执行 EXPLAIN (FORMAT JSON)，
+ * 出现 Seq Scan 或显式 Sort 即失败。EXPLAIN 在关闭 enable_seqscan / enable_sort 的事务中进行：
+ * 只有不存在可用索引路径时规划器才会选择这两类节点。新增派生查询而未在此调用时同样失败。
+ * 没有 Docker 时跳过
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.appfactory.user.repository.QueryPlanTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final Set<String> FORBIDDEN_NODES = Set.of("Seq Scan", "Sort", "Incremental Sort");
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            UserRepository.class, VerificationCodeRepository.class, RefreshTokenRepository.class);
+    private static final String PHONE = "13800000042";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    // User 的 UserStatusListener 依赖它，JPA 切片中没有这个 Bean
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void derivedQueriesUseIndexes() throws Exception {
+        seed();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("UserRepository.findByPhone", () -> userRepository.findByPhone(PHONE));
+        calls.put("UserRepository.existsByPhone", () -> userRepository.existsByPhone(PHONE));
+        calls.put("VerificationCodeRepository.findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc",
+                () -> verificationCodeRepository.findTopByPhoneAndTypeAndVerifiedFalseOrderByCreatedAtDesc(
+                        PHONE, VerificationCode.CodeType.LOGIN));
+        calls.put("VerificationCodeRepository.countByPhoneAndCreatedAtAfter",
+                () -> verificationCodeRepository.countByPhoneAndCreatedAtAfter(PHONE, now.minusHours(1)));
+        calls.put("VerificationCodeRepository.deleteByExpiresAtBefore",
+                () -> verificationCodeRepository.deleteByExpiresAtBefore(now));
+        calls.put("RefreshTokenRepository.findByToken", () -> refreshTokenRepository.findByToken("token-42"));
+        calls.put("RefreshTokenRepository.findByUserIdOrderByLastUsedAtDesc",
+                () -> refreshTokenRepository.findByUserIdOrderByLastUsedAtDesc(42L));
+        calls.put("RefreshTokenRepository.deleteByUserId", () -> refreshTokenRepository.deleteByUserId(42L));
+        calls.put("RefreshTokenRepository.deleteByExpiresAtBefore",
+                () -> refreshTokenRepository.deleteByExpiresAtBefore(now));
+        calls.put("RefreshTokenRepository.rotateToken",
+                () -> refreshTokenRepository.rotateToken("token-42", "token-rotated", now, now));
+
+        assertThat(calls.keySet()).containsAll(derivedQueryMethods());
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_sort = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+            CapturingInspector.STATEMENTS.clear();
+            call.getValue().run();
+            // 派生删除先查询实体，DELETE 在 flush 时发出
+            entityManager.flush();
+            List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+            assertThat(statements).as(call.getKey()).isNotEmpty();
+            for (String sql : statements) {
+                List<String> offending = explain(sql);
+                if (!offending.isEmpty()) {
+                    failures.add(call.getKey() + ": " + offending + " in " + sql);
+                }
+            }
+        }
+        assertThat(failures).isEmpty();
+    }
+
+    /**
+     * 2 万用户，每人若干验证码和会话，少量已过期；写入后 ANALYZE，让规划器按真实统计信息估算
+     */
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, phone, nickname, status)
+                SELECT g, '138' || lpad(g::text, 8, '0'), 'user-' || g, 'ACTIVE'
+                FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO verification_codes (phone, code, type, expires_at, verified, created_at)
+                SELECT '138' || lpad((g % 20000 + 1)::text, 8, '0'), lpad((g % 1000000)::text, 6, '0'),
+                       CASE WHEN g % 2 = 0 THEN 'LOGIN' ELSE 'REGISTER' END,
+                       now() + (g - 10) * interval '1 minute', g % 3 = 0, now() - g * interval '1 second'
+                FROM generate_series(1, 60000) g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO refresh_tokens (user_id, device_id, token, expires_at, created_at, last_used_at)
+                SELECT g % 20000 + 1, 'device-' || (g / 20000), 'token-' || g,
+                       now() + (g - 10) * interval '1 minute', now() - g * interval '1 second',
+                       now() - g * interval '1 second'
+                FROM generate_series(1, 60000) g
+                """);
+        jdbcTemplate.execute("ANALYZE users, verification_codes, refresh_tokens");
+    }
+
+    /**
+     * 以 PREPARE 准备 Hibernate 的 SQL（? 换成 $n），在 force_generic_plan 下 EXPLAIN EXECUTE，
+     * 得到与参数值无关的通用计划
+     */
+    private List<String> explain(String sql) throws Exception {
+        StringBuilder positional = new StringBuilder(sql.length() + 8);
+        int params = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                positional.append('$').append(++params);
+            } else {
+                positional.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE plan_check AS " + positional);
+        try {
+            String arguments = params == 0 ? "" : "(" + String.join(", ", Collections.nCopies(params, "NULL")) + ")";
+            String json = jdbcTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) EXECUTE plan_check" + arguments, String.class);
+            List<String> offending = new ArrayList<>();
+            collectForbidden(objectMapper.readTree(json).get(0).get("Plan"), offending);
+            return offending;
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plan_check");
+        }
+    }
+
+    private void collectForbidden(JsonNode plan, List<String> offending) {
+        String nodeType = plan.path("Node Type").asText();
+        if (FORBIDDEN_NODES.contains(nodeType)) {
+            String relation = plan.path("Relation Name").asText("");
+            offending.add(relation.isEmpty() ? nodeType : nodeType + " on " + relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectForbidden(child, offending);
+        }
+    }
+
+    /**
+     * 仓库接口上声明的、没有 @Query 的方法即派生查询
+     */
+    private static List<String> derivedQueryMethods() {
+        List<String> methods = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isDefault() && !method.isAnnotationPresent(Query.class)) {
+                    methods.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * 记录 Hibernate 发出的 SQL，由 Hibernate 按类名实例化
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
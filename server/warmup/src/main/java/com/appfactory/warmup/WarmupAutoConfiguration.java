@@ -0,0 +1,27 @@
+package com.appfactory.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 预热自动配置，gateway 与 user-service 共用，各服务只需声明 WarmupWorkload Bean
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "appfactory.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupAutoConfiguration {
+
+    @Bean
+    public WarmupRunner warmupRunner(ObjectProvider<WarmupWorkload> workloads, WarmupProperties properties,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new WarmupRunner(workloads.orderedStream().toList(), properties, eventPublisher,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,31 @@
+package com.appfactory.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 预热配置，时间和轮数任一先到即结束
+ */
+@Data
+@ConfigurationProperties(prefix = "appfactory.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 每个负载最多执行的次数
+     */
+    private int iterations = 5_000;
+
+    /**
+     * 预热总时长上限，超过后立即转为就绪
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /**
+     * 单个负载连续失败次数达到此值后不再执行（例如依赖尚未可用）
+     */
+    private int maxConsecutiveFailures = 20;
+}
@@ -0,0 +1,134 @@
+package com.appfactory.warmup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 就绪前预热
+ *
+ * ApplicationRunner 在 Web 服务器启动之后、Spring Boot 发布 ACCEPTING_TRAFFIC 之前执行，
+ * 因此预热期间 /actuator/health/readiness 为 OUT_OF_SERVICE，流量不会进入；
+ * 本地回环请求可以正常到达服务器。预热结束后由 Spring Boot 照常将就绪状态切换为 UP。
+ *
+ * 指标：
+ * - warmup.progress        已完成轮数 / 目标轮数
+ * - warmup.iterations      各负载已执行次数
+ * - warmup.failures        各负载失败次数
+ * - warmup.duration        预热总耗时
+ */
+@Slf4j
+public class WarmupRunner implements ApplicationRunner, Ordered {
+
+    private final List<WarmupWorkload> workloads;
+    private final WarmupProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger completedRounds = new AtomicInteger();
+
+    public WarmupRunner(List<WarmupWorkload> workloads, WarmupProperties properties,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.workloads = workloads;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (workloads.isEmpty()) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        int iterations = properties.getIterations();
+        Gauge.builder("warmup.progress", completedRounds, rounds -> (double) rounds.get() / iterations)
+                .register(meterRegistry);
+
+        List<WorkloadState> states = new ArrayList<>(workloads.size());
+        for (WarmupWorkload workload : workloads) {
+            states.add(new WorkloadState(workload,
+                    meterRegistry.counter("warmup.iterations", "workload", workload.name()),
+                    meterRegistry.counter("warmup.failures", "workload", workload.name())));
+        }
+
+        log.info("Warm-up started: workloads={}, iterations={}, maxDuration={}",
+                workloads.stream().map(WarmupWorkload::name).toList(), iterations, properties.getMaxDuration());
+
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        int logEvery = Math.max(1, iterations / 10);
+
+        // 交替执行各负载，使 JIT 看到与真实流量相近的调用分布
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            boolean anyActive = false;
+            for (WorkloadState state : states) {
+                anyActive |= state.runOnce(i, properties.getMaxConsecutiveFailures());
+            }
+            completedRounds.incrementAndGet();
+            if (!anyActive) {
+                break;
+            }
+            if ((i + 1) % logEvery == 0) {
+                log.info("Warm-up progress: {}/{}", i + 1, iterations);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("warmup.duration").register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warm-up finished in {} ms: {}/{} rounds{}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                completedRounds.get(), iterations, System.nanoTime() >= deadline ? " (time limit reached)" : "");
+    }
+
+    @Override
+    public int getOrder() {
+        // 先于其他 ApplicationRunner 执行
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static final class WorkloadState {
+        private final WarmupWorkload workload;
+        private final Counter iterations;
+        private final Counter failures;
+        private int consecutiveFailures;
+        private boolean disabled;
+
+        WorkloadState(WarmupWorkload workload, Counter iterations, Counter failures) {
+            this.workload = workload;
+            this.iterations = iterations;
+            this.failures = failures;
+        }
+
+        boolean runOnce(int iteration, int maxConsecutiveFailures) {
+            if (disabled) {
+                return false;
+            }
+            try {
+                workload.run(iteration);
+                iterations.increment();
+                consecutiveFailures = 0;
+            } catch (Exception e) {
+                failures.increment();
+                if (++consecutiveFailures >= maxConsecutiveFailures) {
+                    disabled = true;
+                    log.warn("Warm-up workload {} disabled after {} consecutive failures: {}",
+                            workload.name(), consecutiveFailures, e.getMessage());
+                }
+            }
+            return !disabled;
+        }
+    }
+}
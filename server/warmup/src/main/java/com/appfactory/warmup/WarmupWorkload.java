@@ -0,0 +1,39 @@
+package com.appfactory.warmup;
+
+/**
+ * 预热负载
+ *
+ * 每个服务把自己的热点路径（签发/校验 Token、序列化、查询、过滤器链）声明为 Bean，
+ * WarmupRunner 在就绪前交替执行所有负载
+ */
+public interface WarmupWorkload {
+
+    /**
+     * 负载名称，用作指标标签
+     */
+    String name();
+
+    /**
+     * 执行一次负载，iteration 从 0 开始递增，可用于构造不同的输入
+     */
+    void run(int iteration) throws Exception;
+
+    static WarmupWorkload of(String name, Task task) {
+        return new WarmupWorkload() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void run(int iteration) throws Exception {
+                task.run(iteration);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Task {
+        void run(int iteration) throws Exception;
+    }
+}